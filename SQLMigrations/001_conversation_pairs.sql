@@ -0,0 +1,34 @@
+-- Conversation identity on MessageRecipients.
+-- Every recipient row gets the canonical (LEAST, GREATEST) pair of sender and recipient,
+-- plus a copy of send_at, so a two-person chat is one range scan of idx_mr_conversation.
+-- Safe to run more than once.
+
+BEGIN;
+
+ALTER TABLE public."MessageRecipients"
+    ADD COLUMN IF NOT EXISTS conv_low bigint,
+    ADD COLUMN IF NOT EXISTS conv_high bigint,
+    ADD COLUMN IF NOT EXISTS send_at timestamp without time zone;
+
+-- Backfill existing rows
+UPDATE public."MessageRecipients" mr
+SET conv_low = LEAST(m.from_user_id, mr.id_recipient),
+    conv_high = GREATEST(m.from_user_id, mr.id_recipient),
+    send_at = m.send_at
+FROM public."Messages" m
+WHERE m.id_message = mr.id_message
+  AND mr.conv_low IS NULL;
+
+ALTER TABLE public."MessageRecipients"
+    ALTER COLUMN conv_low SET NOT NULL,
+    ALTER COLUMN conv_high SET NOT NULL,
+    ALTER COLUMN send_at SET NOT NULL;
+
+COMMIT;
+
+-- Outside the transaction so writes are not blocked while it builds
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_mr_conversation
+    ON public."MessageRecipients" USING btree
+    (conv_low ASC NULLS LAST, conv_high ASC NULLS LAST, send_at DESC NULLS LAST, id_message DESC NULLS LAST);
+
+DROP INDEX IF EXISTS public.idx_messages_sender_sent;
@@ -0,0 +1,82 @@
+-- Herd aggregates kept on the Herds row: member count and the sums behind the average performance.
+-- Triggers keep them in the same transaction as every membership or duck stat change,
+-- including members removed by ON DELETE CASCADE when a duck account is deleted.
+-- Safe to run more than once.
+
+BEGIN;
+
+ALTER TABLE public."Herds"
+    ADD COLUMN IF NOT EXISTS member_count integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS sum_speed double precision NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS sum_resistance double precision NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION public.herd_members_aggregate() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE public."Herds" h
+        SET member_count = h.member_count + 1,
+            sum_speed = h.sum_speed + COALESCE(d.speed, 0),
+            sum_resistance = h.sum_resistance + COALESCE(d.resistance, 0)
+        FROM public."Ducks" d
+        WHERE h."idHerd" = NEW.id_herd AND d."idDuck" = NEW.id_duck;
+        RETURN NEW;
+    END IF;
+
+    -- on a cascade from Ducks the duck row is already gone, its stats come from the trigger below
+    UPDATE public."Herds" h
+    SET member_count = h.member_count - 1,
+        sum_speed = h.sum_speed - COALESCE(d.speed, 0),
+        sum_resistance = h.sum_resistance - COALESCE(d.resistance, 0)
+    FROM (SELECT OLD.id_duck AS id) m
+    LEFT JOIN public."Ducks" d ON d."idDuck" = m.id
+    WHERE h."idHerd" = OLD.id_herd;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION public.herd_ducks_aggregate() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        UPDATE public."Herds" h
+        SET sum_speed = h.sum_speed + (COALESCE(NEW.speed, 0) - COALESCE(OLD.speed, 0)),
+            sum_resistance = h.sum_resistance + (COALESCE(NEW.resistance, 0) - COALESCE(OLD.resistance, 0))
+        FROM public."HerdMembers" hm
+        WHERE hm.id_duck = NEW."idDuck" AND h."idHerd" = hm.id_herd;
+        RETURN NEW;
+    END IF;
+
+    -- DELETE: take the stats out before the cascade removes the membership rows
+    UPDATE public."Herds" h
+    SET sum_speed = h.sum_speed - COALESCE(OLD.speed, 0),
+        sum_resistance = h.sum_resistance - COALESCE(OLD.resistance, 0)
+    FROM public."HerdMembers" hm
+    WHERE hm.id_duck = OLD."idDuck" AND h."idHerd" = hm.id_herd;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_herd_members_aggregate ON public."HerdMembers";
+CREATE TRIGGER trg_herd_members_aggregate
+    AFTER INSERT OR DELETE ON public."HerdMembers"
+    FOR EACH ROW EXECUTE FUNCTION public.herd_members_aggregate();
+
+DROP TRIGGER IF EXISTS trg_herd_ducks_aggregate ON public."Ducks";
+CREATE TRIGGER trg_herd_ducks_aggregate
+    BEFORE DELETE OR UPDATE OF speed, resistance ON public."Ducks"
+    FOR EACH ROW EXECUTE FUNCTION public.herd_ducks_aggregate();
+
+-- Backfill from the current members
+UPDATE public."Herds" h
+SET member_count = COALESCE(a.n, 0),
+    sum_speed = COALESCE(a.speed, 0),
+    sum_resistance = COALESCE(a.resistance, 0)
+FROM public."Herds" h2
+LEFT JOIN (
+    SELECT hm.id_herd, COUNT(*) AS n, SUM(d.speed) AS speed, SUM(d.resistance) AS resistance
+    FROM public."HerdMembers" hm
+    JOIN public."Ducks" d ON d."idDuck" = hm.id_duck
+    GROUP BY hm.id_herd
+) a ON a.id_herd = h2."idHerd"
+WHERE h."idHerd" = h2."idHerd";
+
+COMMIT;
@@ -0,0 +1,84 @@
+-- Race results and the duck leaderboard.
+-- Races/RaceLanes keep every finished race. DuckLeaderboard and DuckBestTimes are updated in the
+-- same transaction as each saved race, so top-k reads are an index scan instead of an aggregate
+-- over the whole history.
+-- Safe to run more than once.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS public."Races"
+(
+    id_race bigint NOT NULL GENERATED ALWAYS AS IDENTITY ( INCREMENT 1 START 1 MINVALUE 1 MAXVALUE 9223372036854775807 CACHE 1 ),
+    id_event bigint,
+    race_name character varying(100) COLLATE pg_catalog."default",
+    run_at timestamp without time zone NOT NULL DEFAULT now(),
+    total_time double precision NOT NULL,
+    CONSTRAINT "Races_pkey" PRIMARY KEY (id_race),
+    CONSTRAINT "Races_id_event_fkey" FOREIGN KEY (id_event)
+        REFERENCES public."Events" ("idEvent") MATCH SIMPLE
+        ON UPDATE NO ACTION
+        ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS public."RaceLanes"
+(
+    id_race bigint NOT NULL,
+    lane integer NOT NULL,
+    id_duck bigint NOT NULL,
+    distance double precision NOT NULL,
+    velocity double precision NOT NULL,
+    finish_time double precision NOT NULL,
+    CONSTRAINT "RaceLanes_pkey" PRIMARY KEY (id_race, lane),
+    CONSTRAINT "RaceLanes_id_race_fkey" FOREIGN KEY (id_race)
+        REFERENCES public."Races" (id_race) MATCH SIMPLE
+        ON UPDATE NO ACTION
+        ON DELETE CASCADE,
+    CONSTRAINT "RaceLanes_id_duck_fkey" FOREIGN KEY (id_duck)
+        REFERENCES public."Ducks" ("idDuck") MATCH SIMPLE
+        ON UPDATE NO ACTION
+        ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_race_lanes_duck
+    ON public."RaceLanes" USING btree (id_duck);
+
+CREATE TABLE IF NOT EXISTS public."DuckLeaderboard"
+(
+    id_duck bigint NOT NULL,
+    races integer NOT NULL DEFAULT 0,
+    wins integer NOT NULL DEFAULT 0,
+    rating double precision NOT NULL DEFAULT 1500,
+    CONSTRAINT "DuckLeaderboard_pkey" PRIMARY KEY (id_duck),
+    CONSTRAINT "DuckLeaderboard_id_duck_fkey" FOREIGN KEY (id_duck)
+        REFERENCES public."Ducks" ("idDuck") MATCH SIMPLE
+        ON UPDATE NO ACTION
+        ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_leaderboard_rating
+    ON public."DuckLeaderboard" USING btree (rating DESC NULLS LAST, id_duck);
+
+CREATE INDEX IF NOT EXISTS idx_leaderboard_wins
+    ON public."DuckLeaderboard" USING btree (wins DESC NULLS LAST, id_duck);
+
+CREATE TABLE IF NOT EXISTS public."DuckBestTimes"
+(
+    id_duck bigint NOT NULL,
+    distance double precision NOT NULL,
+    best_time double precision NOT NULL,
+    id_race bigint,
+    CONSTRAINT "DuckBestTimes_pkey" PRIMARY KEY (id_duck, distance),
+    CONSTRAINT "DuckBestTimes_id_duck_fkey" FOREIGN KEY (id_duck)
+        REFERENCES public."Ducks" ("idDuck") MATCH SIMPLE
+        ON UPDATE NO ACTION
+        ON DELETE CASCADE,
+    CONSTRAINT "DuckBestTimes_id_race_fkey" FOREIGN KEY (id_race)
+        REFERENCES public."Races" (id_race) MATCH SIMPLE
+        ON UPDATE NO ACTION
+        ON DELETE SET NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_best_times_distance
+    ON public."DuckBestTimes" USING btree (distance, best_time, id_duck);
+
+COMMIT;
@@ -5,6 +5,7 @@ plugins {
     id("org.openjfx.javafxplugin") version "0.0.13"
     id("org.beryx.jlink") version "2.25.0"
     id("org.gradlex.extra-java-module-info") version "1.10"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -59,6 +60,19 @@ dependencies {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// headless races, e.g. ./gradlew raceBatch --args="--ducks=ducks.csv --lanes=100,120,150 --races=100000"
+tasks.register<JavaExec>("raceBatch") {
+    classpath = sourceSets["main"].runtimeClasspath
+    mainModule.set("scs")
+    mainClass.set("scs.BatchRaceRunner")
+}
+
+// benchmarks live in src/jmh/java, run with ./gradlew jmh
+jmh {
+    jmhVersion = "1.37"
+}
+
 jlink {
     imageZip.set(layout.buildDirectory.file("/distributions/scs.app-${javafx.platform.classifier}.zip"))
     options.set(listOf("--strip-debug", "--compress", "2", "--no-header-files", "--no-man-pages"))
@@ -0,0 +1,54 @@
+package scs.domain.event;
+
+import org.openjdk.jmh.annotations.*;
+import scs.domain.user.Duck;
+import scs.domain.user.SwimmingDuck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LaneSolver against the resistance-order heuristic in RaceEvent.runRace() on the same random pools.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LaneSolverBenchmark {
+    @Param({"1000", "100000"})
+    int ducks;
+
+    @Param({"10", "200"})
+    int lanes;
+
+    private List<Duck> pool;
+    private double[] distances;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        pool = new ArrayList<>(ducks);
+        for (long id = 1; id <= ducks; ++id)
+            pool.add(new SwimmingDuck(id, "duck" + id, null, null,
+                    1 + 9 * random.nextDouble(), 100 * random.nextDouble()));
+
+        distances = new double[lanes];
+        for (int j = 0; j < lanes; ++j)
+            distances[j] = 50 + 150 * random.nextDouble();
+    }
+
+    @Benchmark
+    public RaceEvent.Result heuristic() {
+        return new RaceEvent(null, "bench", pool, distances, lanes).runRace();
+    }
+
+    @Benchmark
+    public RaceEvent.Result optimal() {
+        return LaneSolver.solve(pool, distances, lanes);
+    }
+}
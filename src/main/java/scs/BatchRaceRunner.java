@@ -0,0 +1,305 @@
+package scs;
+
+import scs.domain.event.LaneSolver;
+import scs.domain.event.RaceEvent;
+import scs.domain.event.RaceSimulation;
+import scs.domain.user.Duck;
+import scs.domain.user.SwimmingDuck;
+import scs.domain.user.User;
+import scs.repo.users.CountStrategy;
+import scs.repo.users.PostgresUserRepository;
+import scs.utilities.database.Db;
+import scs.utilities.errors.DomainException;
+import scs.utilities.errors.DuplicateException;
+import scs.utilities.errors.ValidationException;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs races without JavaFX and streams every lane as CSV or JSON lines.
+ * Each race draws a field of swimmers from the pool, places them with the chosen strategy and swims
+ * the lanes on RaceSimulation. Races run in chunks on a worker pool, each chunk with its own generator
+ * split from the seed, and are written in race order, so the output depends on the seed only.
+ * <p>
+ * Usage: BatchRaceRunner --lanes=100,120,150 [--ducks=db|FILE] [--races=1000] [--field=0] [--strategy=OPTIMAL]
+ * [--jitter=0.05] [--seed=1] [--threads=N] [--format=csv|jsonl] [--out=FILE]
+ * <p>
+ * A ducks file has one "id,speed,resistance" line per swimmer, a lanes file one distance per line.
+ * --ducks=db reads every swimming duck through DB_URL, DB_USER and DB_PASSWORD.
+ * --field=0 races the whole pool every time. Throughput is reported on stderr.
+ */
+public class BatchRaceRunner {
+    private static final int CHUNK = 64;
+    private static final int DB_PAGE = 1000;
+
+    private record Options(String ducks, double[] lanes, int races, int field, RaceEvent.Strategy strategy,
+                           double jitter, long seed, int threads, boolean jsonl, String out) {
+    }
+
+    // Who swims which lane, what RaceSimulation needs from the placed ducks
+    private record Placement(Long[] ids, double[] speed, double[] fatigue) {
+    }
+
+    private final Options options;
+    private final List<Duck> pool;
+    private final Map<Long, Duck> byId = new HashMap<>();
+
+    private BatchRaceRunner(Options options, List<Duck> pool) {
+        this.options = options;
+        this.pool = pool;
+        for (Duck d : pool)
+            byId.put(d.getId(), d);
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        List<Duck> pool;
+        try {
+            options = parse(args);
+            pool = "db".equals(options.ducks()) ? loadFromDatabase() : loadFromFile(Path.of(options.ducks()));
+        } catch (DomainException | IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: BatchRaceRunner --lanes=100,120,150 [--ducks=db|FILE] [--races=1000] [--field=0]"
+                               + " [--strategy=OPTIMAL|HEURISTIC] [--jitter=0.05] [--seed=1] [--threads=N]"
+                               + " [--format=csv|jsonl] [--out=FILE]");
+            System.exit(2);
+            return;
+        }
+
+        try (Writer w = options.out() == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(options.out()))) {
+            new BatchRaceRunner(options, pool).run(w);
+        } catch (DomainException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static Options parse(String[] args) throws IOException {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new ValidationException("arguments", "Unknown argument " + arg);
+            int eq = arg.indexOf('=');
+            opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        String lanes = opts.get("lanes");
+        if (lanes == null)
+            throw new ValidationException("arguments", "--lanes is required");
+
+        String format = opts.getOrDefault("format", "csv");
+        if (!format.equalsIgnoreCase("csv") && !format.equalsIgnoreCase("jsonl"))
+            throw new ValidationException("arguments", "Unknown format " + format + ", use csv or jsonl");
+
+        Options o = new Options(
+                opts.getOrDefault("ducks", "db"),
+                parseLanes(lanes),
+                Integer.parseInt(opts.getOrDefault("races", "1000")),
+                Integer.parseInt(opts.getOrDefault("field", "0")),
+                RaceEvent.Strategy.valueOf(opts.getOrDefault("strategy", "OPTIMAL").toUpperCase()),
+                Double.parseDouble(opts.getOrDefault("jitter", "0.05")),
+                Long.parseLong(opts.getOrDefault("seed", "1")),
+                Integer.parseInt(opts.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                "jsonl".equalsIgnoreCase(format),
+                opts.get("out"));
+
+        if (o.races() <= 0 || o.threads() <= 0 || o.lanes().length == 0)
+            throw new ValidationException("arguments", "races, threads and lanes must be positive");
+        return o;
+    }
+
+    // "100,120,150" or a file with one distance per line
+    private static double[] parseLanes(String spec) throws IOException {
+        Path file = Path.of(spec);
+        List<String> parts = Files.isRegularFile(file)
+                ? Files.readAllLines(file)
+                : Arrays.asList(spec.split(","));
+
+        return parts.stream()
+                .map(String::trim)
+                .filter(s -> !s.isEmpty() && !s.startsWith("#"))
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+    }
+
+    private static List<Duck> loadFromFile(Path file) throws IOException {
+        List<Duck> ducks = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                ++lineNo;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("id"))
+                    continue;
+
+                String[] f = line.split(",");
+                if (f.length != 3)
+                    throw new ValidationException("ducks", file + ":" + lineNo + ": expected id,speed,resistance");
+                long id = Long.parseLong(f[0].trim());
+                // lanes are matched back to ducks by id
+                if (!ids.add(id))
+                    throw new DuplicateException("ducks", "Duck " + id + " is listed twice in " + file + ".");
+                ducks.add(new SwimmingDuck(id, "duck" + id, null, null,
+                        Double.parseDouble(f[1].trim()), Double.parseDouble(f[2].trim())));
+            }
+        }
+        return ducks;
+    }
+
+    // Only the pool needs the database, AppContext (and its listeners) is never started
+    private static List<Duck> loadFromDatabase() {
+        Db.setGlobalConnection(System.getenv("DB_URL"), System.getenv("DB_USER"), System.getenv("DB_PASSWORD"));
+        PostgresUserRepository users = new PostgresUserRepository(CountStrategy.ESTIMATED);
+
+        List<Duck> ducks = new ArrayList<>();
+        CursorPage<User> page = users.search(Cursor.first(DB_PAGE), "DUCK", "ALL", null, null);
+        while (true) {
+            for (User u : page.getElementsOnPage())
+                if (u instanceof Duck d && RaceEvent.canSwim(d))
+                    ducks.add(d);
+            if (!page.hasNext())
+                break;
+            page = users.search(page.nextCursor(), "DUCK", "ALL", null, null);
+        }
+        return ducks;
+    }
+
+    private void run(Writer out) throws IOException {
+        int m = options.lanes().length;
+        int field = options.field() <= 0 ? pool.size() : options.field();
+        if (field < m || pool.size() < field)
+            throw new ValidationException("race", "Pool of " + pool.size() + " can't field " + Math.max(field, m) + " ducks.");
+
+        out.write(options.jsonl() ? "" : "race,lane,duck_id,distance,velocity,time,total_time,winner\n");
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads());
+        // bounded window of chunks in flight, written in submission order
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        int window = options.threads() * 4;
+
+        // racing the whole pool places it the same way every time, so do it once
+        Placement whole = field == pool.size() ? place(pool) : null;
+
+        SplittableRandom root = new SplittableRandom(options.seed());
+        long started = System.nanoTime();
+        try {
+            for (int from = 0; from < options.races(); from += CHUNK) {
+                int start = from, end = Math.min(options.races(), from + CHUNK);
+                SplittableRandom random = root.split();
+                inFlight.add(workers.submit(() -> runChunk(start, end, field, whole, random)));
+
+                if (inFlight.size() >= window)
+                    out.write(take(inFlight));
+            }
+            while (!inFlight.isEmpty())
+                out.write(take(inFlight));
+        } finally {
+            workers.shutdownNow();
+        }
+        out.flush();
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.err.printf("%d races, %d lanes, %d threads: %.2fs, %.0f races/s%n",
+                options.races(), m, options.threads(), seconds, options.races() / seconds);
+    }
+
+    private static String take(Deque<Future<String>> inFlight) throws IOException {
+        try {
+            return inFlight.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re)
+                throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private String runChunk(int start, int end, int field, Placement whole, SplittableRandom random) {
+        StringBuilder sb = new StringBuilder();
+        for (int race = start; race < end; ++race)
+            write(sb, race + 1, runRace(field, whole, random));
+        return sb.toString();
+    }
+
+    private RaceEvent.Result runRace(int field, Placement whole, SplittableRandom random) {
+        Placement p = whole != null ? whole : place(draw(field, random));
+        return new RaceSimulation(p.ids(), p.speed(), p.fatigue(), options.lanes(), random.nextLong(), options.jitter())
+                .runToEnd();
+    }
+
+    private Placement place(List<Duck> entrants) {
+        double[] lanes = options.lanes();
+        List<RaceEvent.LaneResult> placed = options.strategy() == RaceEvent.Strategy.OPTIMAL
+                ? LaneSolver.solve(entrants, lanes, lanes.length).lanes()
+                : new RaceEvent(null, "batch", entrants, lanes, lanes.length).runRace().lanes();
+
+        Long[] ids = new Long[lanes.length];
+        double[] speed = new double[lanes.length];
+        double[] fatigue = new double[lanes.length];
+        for (RaceEvent.LaneResult r : placed) {
+            Duck d = byId.get(r.duckId());
+            int lane = r.lane() - 1;
+            ids[lane] = d.getId();
+            speed[lane] = d.getSpeed();
+            fatigue[lane] = RaceSimulation.fatigueOf(d);
+        }
+        return new Placement(ids, speed, fatigue);
+    }
+
+    // Floyd's sampling, k distinct ducks in O(k)
+    private List<Duck> draw(int k, SplittableRandom random) {
+        Set<Integer> picked = new LinkedHashSet<>();
+        int n = pool.size();
+        for (int j = n - k; j < n; ++j) {
+            int t = random.nextInt(j + 1);
+            picked.add(picked.contains(t) ? j : t);
+        }
+
+        List<Duck> drawn = new ArrayList<>(k);
+        for (int i : picked)
+            drawn.add(pool.get(i));
+        return drawn;
+    }
+
+    private void write(StringBuilder sb, int race, RaceEvent.Result result) {
+        RaceEvent.LaneResult winner = result.lanes().stream()
+                .min(Comparator.comparingDouble(RaceEvent.LaneResult::time))
+                .orElse(null);
+
+        for (RaceEvent.LaneResult l : result.lanes()) {
+            boolean won = l == winner;
+            if (options.jsonl())
+                sb.append("{\"race\":").append(race)
+                        .append(",\"lane\":").append(l.lane())
+                        .append(",\"duckId\":").append(l.duckId())
+                        .append(",\"distance\":").append(l.distance())
+                        .append(",\"velocity\":").append(l.velocity())
+                        .append(",\"time\":").append(l.time())
+                        .append(",\"totalTime\":").append(result.totalTime())
+                        .append(",\"winner\":").append(won)
+                        .append("}\n");
+            else
+                sb.append(race).append(',')
+                        .append(l.lane()).append(',')
+                        .append(l.duckId()).append(',')
+                        .append(l.distance()).append(',')
+                        .append(l.velocity()).append(',')
+                        .append(l.time()).append(',')
+                        .append(result.totalTime()).append(',')
+                        .append(won).append('\n');
+        }
+    }
+}
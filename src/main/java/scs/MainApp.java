@@ -25,6 +25,12 @@ public class MainApp extends Application {
         initLogin();
     }
 
+    @Override
+    public void stop() {
+        if (ctx != null)
+            ctx.close();
+    }
+
     public void initLogin() {
         try {
             FXMLLoader loader = new FXMLLoader(MainApp.class.getResource("/scs/side-views/logins/login-view.fxml"));
@@ -32,7 +38,7 @@ public class MainApp extends Application {
 
             LoginController ctrl = loader.getController();
 
-            ctrl.setService(ctx.PGUserService, this::initMainDashboard);
+            ctrl.setService(ctx.PGAsync, this::initMainDashboard);
 
             loginStage.setScene(new Scene(root));
             loginStage.setTitle("Duck Social - Login");
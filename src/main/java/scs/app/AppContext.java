@@ -3,6 +3,7 @@ package scs.app;
 import scs.domain.user.Duck;
 import scs.repo.events.EventRepository;
 import scs.repo.events.PostgresEventRepository;
+import scs.repo.friend.friendships.CachedFriendshipRepository;
 import scs.repo.friend.friendships.FriendshipRepository;
 //import scs.repo.friend.friendships.InMemoryFriendshipRepository;
 import scs.repo.friend.friendships.PostgresFriendshipRepository;
@@ -14,6 +15,10 @@ import scs.repo.herds.PostgresHerdRepository;
 //import scs.repo.users.InMemoryUserRepository;
 import scs.repo.messages.MessageRepository;
 import scs.repo.messages.PostgresMessageRepository;
+import scs.repo.races.PostgresRaceResultRepository;
+import scs.repo.races.RaceResultRepository;
+import scs.repo.users.CachedUserRepository;
+import scs.repo.users.CountStrategy;
 import scs.repo.users.PostgresUserRepository;
 import scs.repo.users.UserRepository;
 import scs.service.*;
@@ -23,12 +28,17 @@ import scs.service.friend.RequestService;
 import scs.service.social.MessageService;
 import scs.service.social.UserService;
 import scs.utilities.IdGenerator;
+import scs.utilities.database.ChangeChannel;
 import scs.utilities.database.Db;
 import scs.utilities.errors.DatabaseException;
+import scs.utilities.observer.Observable;
+import scs.utilities.observer.Observable.Dispatch;
+import scs.utilities.observer.OverflowPolicy;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.List;
 
 public class AppContext {
     static {
@@ -59,13 +69,16 @@ public class AppContext {
 
 
     //public final UserRepository MemUserRepo = new InMemoryUserRepository();
-    public final UserRepository PGUserRepo = new PostgresUserRepository();
+    private final PostgresUserRepository pgUsers = new PostgresUserRepository(CountStrategy.CACHED);
+    private final CachedUserRepository cachedUsers = new CachedUserRepository(pgUsers, 2048);
+    public final UserRepository PGUserRepo = cachedUsers;
 
     //public final CardRepository<Duck> MemCardRepo = new InMemoryCardRepository<>();
     public final HerdRepository<Duck> PGCardRepo = new PostgresHerdRepository(PGUserRepo);
 
     //public final FriendshipRepository MemFriendRepo = new InMemoryFriendshipRepository();
-    public final FriendshipRepository PGFriendRepo = new PostgresFriendshipRepository();
+    private final CachedFriendshipRepository cachedFriends = new CachedFriendshipRepository(new PostgresFriendshipRepository());
+    public final FriendshipRepository PGFriendRepo = cachedFriends;
 
     public final EventRepository PGEventRepo = new PostgresEventRepository();
 
@@ -73,6 +86,8 @@ public class AppContext {
 
     public final RequestRepository PGRequestRepo = new PostgresRequestRepository(PGUserRepo);
 
+    public final RaceResultRepository PGRaceResultRepo = new PostgresRaceResultRepository();
+
 
     //public final UserService MemUserService = new UserService(MemUserRepo, ids);
     public final UserService PGUserService = new UserService(PGUserRepo, ids);
@@ -92,4 +107,41 @@ public class AppContext {
 
     public final RequestService PGRequestService = new RequestService(PGRequestRepo, PGFriendshipService, PGUserRepo);
 
+    public final RaceResultService PGRaceResultService = new RaceResultService(PGRaceResultRepo);
+
+    // screens call the services through here, never on the FX thread
+    private final Background background = new Background();
+    public final AsyncServices PGAsync = new AsyncServices(background, PGUserService, PGFriendshipService,
+            PGCommunityService, PGRequestService, PGMessageService, PGCardService, PGEventService, PGRaceResultService);
+
+    {
+        // caches and trackers must be up to date when a write returns, so they stay synchronous
+        PGUserService.addObserver(pgUsers::onUserChanged, Dispatch.SYNC);
+        PGUserService.addObserver(cachedUsers::onUserChanged, Dispatch.SYNC);
+
+        PGFriendshipService.addObserver(cachedFriends::onFriendshipChanged, Dispatch.SYNC);
+        PGUserService.addObserver(cachedFriends::onUserChanged, Dispatch.SYNC);
+
+        PGFriendshipService.addObserver(PGCommunityService::onFriendshipChanged, Dispatch.SYNC);
+        PGUserService.addObserver(PGCommunityService::onUserChanged, Dispatch.SYNC);
+
+        // everything registered later (controllers) gets its own queue, so a slow screen never stalls a write
+        for (Observable<?> service : List.of(PGUserService, PGFriendshipService, PGMessageService,
+                PGEventService, PGRequestService, PGCardService, PGCardService.memberships()))
+            service.setDispatch(Dispatch.ASYNC, Observable.DEFAULT_QUEUE_CAPACITY, OverflowPolicy.BLOCK);
+
+        // changes made by other running clients arrive over LISTEN/NOTIFY
+        PGMessageService.connect(new ChangeChannel("scs_messages"));
+        PGFriendshipService.connect(new ChangeChannel("scs_friendships"));
+        PGRequestService.connect(new ChangeChannel("scs_requests"));
+        PGEventService.connect(new ChangeChannel("scs_events"));
+
+        PGMessageService.start();
+    }
+
+    // On exit: commit the messages still queued, then stop the screens' executor
+    public void close() {
+        PGMessageService.close();
+        background.close();
+    }
 }
@@ -0,0 +1,231 @@
+package scs.app;
+
+import scs.domain.event.Event;
+import scs.domain.event.RaceEvent;
+import scs.domain.group.Herd;
+import scs.domain.group.HerdSummary;
+import scs.domain.interactions.FriendRequest;
+import scs.domain.interactions.Message;
+import scs.domain.interactions.Relation;
+import scs.domain.user.Duck;
+import scs.domain.user.Person;
+import scs.domain.user.User;
+import scs.domain.user.UserSummary;
+import scs.service.EventService;
+import scs.service.HerdService;
+import scs.service.RaceResultService;
+import scs.service.friend.CommunityService;
+import scs.service.friend.FriendshipService;
+import scs.service.friend.RequestService;
+import scs.service.social.MessageService;
+import scs.service.social.UserService;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
+import scs.utilities.paging.MessageCursor;
+import scs.utilities.paging.MessagePage;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The blocking service calls the screens make, run on the shared Background executor.
+ * Futures complete off the FX thread; screens hop back with Platform.runLater (see LoadSlot).
+ */
+public class AsyncServices {
+    private final Background background;
+    private final UserService users;
+    private final FriendshipService friendships;
+    private final CommunityService community;
+    private final RequestService requests;
+    private final MessageService messages;
+    private final HerdService herds;
+    private final EventService events;
+    private final RaceResultService raceResults;
+
+    public AsyncServices(Background background, UserService users, FriendshipService friendships,
+                         CommunityService community, RequestService requests, MessageService messages,
+                         HerdService herds, EventService events, RaceResultService raceResults) {
+        this.background = background;
+        this.users = users;
+        this.friendships = friendships;
+        this.community = community;
+        this.requests = requests;
+        this.messages = messages;
+        this.herds = herds;
+        this.events = events;
+        this.raceResults = raceResults;
+    }
+
+    // One page of the users table with what the rows need, total is -1 when it was not recounted
+    public record UsersPage(CursorPage<User> slice, Map<Long, Relation> relations, int total) {
+    }
+
+    // Accounts, bcrypt makes these slow on purpose
+
+    public CompletableFuture<User> login(String email, String password) {
+        return background.supply(() -> users.login(email, password));
+    }
+
+    public CompletableFuture<Person> createPerson(String username, String email, String password,
+                                                  String name, String firstName, LocalDate birthDate, String occupation) {
+        return background.supply(() -> users.createPerson(username, email, password, name, firstName, birthDate, occupation));
+    }
+
+    public CompletableFuture<Duck> createDuck(String species, String username, String email, String password,
+                                              double speed, double resistance) {
+        return background.supply(() -> switch (species) {
+            case "SWIMMING" -> users.createSwimmingDuck(username, email, password, speed, resistance);
+            case "FLYING" -> users.createFlyingDuck(username, email, password, speed, resistance);
+            default -> users.createHybridDuck(username, email, password, speed, resistance);
+        });
+    }
+
+    public CompletableFuture<Void> deleteUser(Long id) {
+        return background.run(() -> users.deleteUser(id));
+    }
+
+    // Users and friends
+
+    // The page, the relations of its rows and, if asked, the filtered total, all under one permit
+    public CompletableFuture<UsersPage> usersPage(Long viewerId, Cursor cursor, String userType, String duckType,
+                                                  String relationFilter, boolean recount) {
+        return background.supply(() -> {
+            Set<Long> friendIds = friendships.getFriendsOf(viewerId);
+            CursorPage<User> slice = users.searchUsers(cursor, userType, duckType, relationFilter, viewerId, friendIds);
+            Map<Long, Relation> relations = requests.getRelations(viewerId, slice.stream().map(User::getId).toList());
+            int total = recount
+                    ? users.countUsers(userType, duckType, relationFilter, viewerId, friendIds)
+                    : -1;
+            return new UsersPage(slice, relations, total);
+        });
+    }
+
+    // Friends and the race bot in one narrow query, the bot first
+    public CompletableFuture<List<UserSummary>> chatFriends(Long userId) {
+        return background.supply(() -> {
+            Set<Long> ids = new LinkedHashSet<>(friendships.getFriendsOf(userId));
+            ids.add(UserService.RACE_BOT_ID);
+
+            List<UserSummary> friends = new ArrayList<>(users.findSummariesByIds(ids));
+            for (int i = 0; i < friends.size(); ++i)
+                if (friends.get(i).id().equals(UserService.RACE_BOT_ID)) {
+                    friends.addFirst(friends.remove(i));
+                    break;
+                }
+            return friends;
+        });
+    }
+
+    public CompletableFuture<List<UserSummary>> userSummaries(Collection<Long> ids) {
+        return background.supply(() -> users.findSummariesByIds(ids));
+    }
+
+    public CompletableFuture<Set<Long>> friendsOf(Long userId) {
+        return background.supply(() -> friendships.getFriendsOf(userId));
+    }
+
+    public CompletableFuture<Void> removeFriendship(Long id1, Long id2) {
+        return background.run(() -> friendships.removeFriendship(id1, id2));
+    }
+
+    public CompletableFuture<Void> sendRequest(Long fromId, Long toId) {
+        return background.run(() -> requests.sendRequest(fromId, toId));
+    }
+
+    public CompletableFuture<List<FriendRequest>> pendingRequests(Long userId) {
+        return background.supply(() -> requests.getPendingRequests(userId));
+    }
+
+    public CompletableFuture<Void> acceptRequest(FriendRequest request) {
+        return background.run(() -> requests.acceptRequest(request));
+    }
+
+    public CompletableFuture<Void> rejectRequest(FriendRequest request) {
+        return background.run(() -> requests.rejectRequest(request));
+    }
+
+    public CompletableFuture<Integer> countCommunities() {
+        return background.supply(community::countCommunities);
+    }
+
+    public CompletableFuture<CommunityService.CommunitySummary> mostSociableCommunity() {
+        return background.supply(() -> community.mostSociableCommunity());
+    }
+
+    // Messages
+
+    // Lookups and validation here, the commit on the message writer; completes once the message is saved
+    public CompletableFuture<Message> sendMessage(Long fromId, List<Long> toIds, String text, Long replyToId) {
+        return background.supply(() -> messages.sendMessageAsync(fromId, toIds, text, replyToId))
+                .thenCompose(saved -> saved);
+    }
+
+    public CompletableFuture<MessagePage> conversation(Long id1, Long id2, MessageCursor cursor) {
+        return background.supply(() -> messages.getConversation(id1, id2, cursor));
+    }
+
+    // Herds
+
+    public CompletableFuture<List<HerdSummary>> herdSummaries() {
+        return background.supply(() -> herds.summaries());
+    }
+
+    public CompletableFuture<CursorPage<HerdSummary>> herdSummaries(Cursor cursor) {
+        return background.supply(() -> herds.summaries(cursor));
+    }
+
+    public CompletableFuture<Herd<Duck>> herd(Long herdId) {
+        return background.supply(() -> herds.findById(herdId));
+    }
+
+    public CompletableFuture<List<Duck>> herdMembers(Long herdId) {
+        return background.supply(() -> herds.members(herdId));
+    }
+
+    public CompletableFuture<Herd<Duck>> createHerd(String name, Duck founder) {
+        return background.supply(() -> {
+            Herd<Duck> herd = herds.createHerd(name);
+            herds.addDuck(herd.getId(), founder);
+            return herd;
+        });
+    }
+
+    public CompletableFuture<Void> joinHerd(Long herdId, Duck duck) {
+        return background.run(() -> herds.addDuck(herdId, duck));
+    }
+
+    public CompletableFuture<Void> leaveHerd(Long herdId, Long duckId) {
+        return background.run(() -> herds.deleteDuck(herdId, duckId));
+    }
+
+    // Events and races
+
+    public CompletableFuture<List<Event>> events() {
+        return background.supply(events::getAll);
+    }
+
+    public CompletableFuture<Event> createEvent(String name, Long subscriberId) {
+        return background.supply(() -> {
+            Event event = events.createEvent(name);
+            events.subscribe(event.getId(), subscriberId);
+            return event;
+        });
+    }
+
+    public CompletableFuture<Void> subscribe(Long eventId, Long userId) {
+        return background.run(() -> events.subscribe(eventId, userId));
+    }
+
+    public CompletableFuture<Void> unsubscribe(Long eventId, Long userId) {
+        return background.run(() -> events.unsubscribe(eventId, userId));
+    }
+
+    public CompletableFuture<Void> notifySubscribers(Long eventId, String text) {
+        return background.run(() -> events.notifySubscribers(eventId, text));
+    }
+
+    public CompletableFuture<Long> recordRace(Long eventId, String raceName, RaceEvent.Result result) {
+        return background.supply(() -> raceResults.record(eventId, raceName, result));
+    }
+}
@@ -0,0 +1,65 @@
+package scs.app;
+
+import scs.utilities.database.Db;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * The one executor the screens use for service calls.
+ * Every call gets a virtual thread, but only a few run at once so clicks can't drain the connection pool;
+ * the rest wait for a permit. A call cancelled while it waits never runs, one cancelled while running
+ * finishes but its result is dropped (interrupting JDBC would cost the pool its connection).
+ */
+public final class Background implements AutoCloseable {
+    // the rest of the pool stays free for observers, notifications and the message batcher
+    public static final int DEFAULT_PERMITS = Db.MAX_POOL_SIZE - 2;
+
+    private final ExecutorService threads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("background-", 0).factory());
+    private final Semaphore permits;
+
+    public Background() {
+        this(DEFAULT_PERMITS);
+    }
+
+    public Background(int permits) {
+        if (permits <= 0)
+            throw new IllegalArgumentException("permits must be positive");
+        this.permits = new Semaphore(permits, true);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        threads.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.cancel(false);
+                return;
+            }
+
+            try {
+                if (!result.isDone())
+                    result.complete(work.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                permits.release();
+            }
+        });
+        return result;
+    }
+
+    public CompletableFuture<Void> run(Runnable work) {
+        return supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        threads.shutdownNow();
+    }
+}
@@ -0,0 +1,5 @@
+package scs.domain.event;
+
+// A duck's fastest finish over one lane distance, raceId is null once that race is deleted
+public record BestTime(Long duckId, String username, double distance, double time, Long raceId) {
+}
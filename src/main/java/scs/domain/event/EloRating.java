@@ -0,0 +1,39 @@
+package scs.domain.event;
+
+/**
+ * Multi-player Elo: a race counts as one game between every pair of lanes, the faster lane wins the pair.
+ * Each duck moves by K / (n - 1) times the sum of (actual - expected) over its pairs,
+ * so a race moves a rating about as much as a single game would.
+ */
+public final class EloRating {
+    public static final double INITIAL = 1500.0;
+    public static final double K = 32.0;
+
+    private EloRating() {
+    }
+
+    public static double expected(double rating, double opponent) {
+        return 1.0 / (1.0 + Math.pow(10.0, (opponent - rating) / 400.0));
+    }
+
+    // ratings[i] belongs to the duck that finished in times[i]
+    public static double[] update(double[] ratings, double[] times) {
+        int n = ratings.length;
+        double[] updated = ratings.clone();
+        if (n < 2)
+            return updated;
+
+        double k = K / (n - 1);
+        for (int i = 0; i < n; ++i) {
+            double delta = 0.0;
+            for (int j = 0; j < n; ++j) {
+                if (i == j)
+                    continue;
+                double actual = times[i] < times[j] ? 1.0 : times[i] == times[j] ? 0.5 : 0.0;
+                delta += actual - expected(ratings[i], ratings[j]);
+            }
+            updated[i] += k * delta;
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,131 @@
+package scs.domain.event;
+
+import scs.domain.user.Duck;
+import scs.utilities.errors.NotFoundException;
+
+import java.util.*;
+
+/**
+ * Picks laneCount swimmers and their lanes so that the slowest lane, 2 * d / v, is as fast as possible.
+ * Same lane order as the heuristic in RaceEvent.runRace(): a later lane never gets a duck with higher resistance,
+ * so the heuristic's pick is always a candidate and the result is never slower than it.
+ * <p>
+ * Binary search on the race time T. T is feasible if walking the ducks by resistance, highest first, and giving
+ * each lane, in order, the slowest remaining duck that swims it within T fills every lane.
+ * One sort plus O(n log n) per probe, O(n log n * log(1/eps)) overall.
+ */
+public final class LaneSolver {
+    // relative precision of the race time
+    private static final double EPS = 1e-9;
+    private static final int MAX_PROBES = 200;
+
+    private LaneSolver() {
+    }
+
+    public static RaceEvent.Result solve(List<Duck> swimmers, double[] lanes, int laneCount) {
+        if (swimmers.size() < laneCount)
+            throw new NotFoundException("no ducks", "Not enough ducks for these many lanes.");
+
+        Duck[] ducks = swimmers.toArray(new Duck[0]);
+        // most resistant first, slowest first within equal resistance
+        Arrays.sort(ducks, Comparator.comparingDouble(Duck::getResistance).reversed()
+                .thenComparingDouble(Duck::getSpeed));
+
+        // the probes only touch these, not the ducks
+        double[] speed = new double[ducks.length];
+        for (int i = 0; i < ducks.length; ++i)
+            speed[i] = ducks[i].getSpeed();
+
+        // groupEnd[i] is one past the last duck with the same resistance as duck i
+        int[] groupEnd = new int[ducks.length];
+        for (int i = ducks.length - 1; i >= 0; --i)
+            groupEnd[i] = (i + 1 < ducks.length && ducks[i + 1].getResistance() == ducks[i].getResistance())
+                    ? groupEnd[i + 1] : i + 1;
+
+        int[] chosen = new int[laneCount];
+
+        // any duck that moves fits any lane within this bound
+        double minSpeed = Double.MAX_VALUE, maxDistance = 0.0;
+        for (double v : speed)
+            if (v > 0)
+                minSpeed = Math.min(minSpeed, v);
+        for (int j = 0; j < laneCount; ++j)
+            maxDistance = Math.max(maxDistance, lanes[j]);
+
+        double lo = 0.0;
+        double hi = 2.0 * maxDistance / minSpeed * (1 + EPS);   // a hair above, so rounding can't reject it
+        if (!assign(speed, groupEnd, lanes, laneCount, hi, chosen))
+            throw new NotFoundException("no ducks", "No swimmer can finish these lanes.");
+
+        for (int probe = 0; probe < MAX_PROBES && hi - lo > EPS * hi; ++probe) {
+            double mid = (lo + hi) / 2;
+            if (assign(speed, groupEnd, lanes, laneCount, mid, null))
+                hi = mid;
+            else
+                lo = mid;
+        }
+        assign(speed, groupEnd, lanes, laneCount, hi, chosen);
+
+        List<RaceEvent.LaneResult> results = new ArrayList<>(laneCount);
+        double maxTime = 0.0;
+        for (int j = 0; j < laneCount; ++j) {
+            Duck duck = ducks[chosen[j]];
+            double t = 2.0 * lanes[j] / duck.getSpeed();
+            maxTime = Math.max(maxTime, t);
+            results.add(new RaceEvent.LaneResult(duck.getId(), j + 1, lanes[j], duck.getSpeed(), t));
+        }
+
+        return new RaceEvent.Result(Collections.unmodifiableList(results), maxTime);
+    }
+
+    // Greedy feasibility check, fills chosen with duck indexes per lane when it is given.
+    // Ducks with the same resistance may go in any order, so each lane takes the slowest duck of the
+    // current resistance group that still makes it; when none does the next group takes over.
+    private static boolean assign(double[] speed, int[] groupEnd, double[] lanes, int laneCount, double limit, int[] chosen) {
+        int n = speed.length;
+        // next unused duck at or after i, path-compressed
+        int[] next = new int[n + 1];
+        for (int i = 0; i <= n; ++i)
+            next[i] = i;
+
+        int lane = 0;
+        for (int start = 0; start < n && lane < laneCount; start = groupEnd[start]) {
+            int end = groupEnd[start];
+            while (lane < laneCount) {
+                int i = unused(next, lowerBound(speed, start, end, 2.0 * lanes[lane] / limit));
+                if (i >= end)
+                    break;
+
+                next[i] = i + 1;
+                if (chosen != null)
+                    chosen[lane] = i;
+                ++lane;
+            }
+        }
+        return lane == laneCount;
+    }
+
+    private static int unused(int[] next, int i) {
+        int root = i;
+        while (next[root] != root)
+            root = next[root];
+        while (next[i] != root) {
+            int up = next[i];
+            next[i] = root;
+            i = up;
+        }
+        return root;
+    }
+
+    // First index in [from, to) with speed >= required
+    private static int lowerBound(double[] speed, int from, int to, double required) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (speed[mid] < required)
+                from = mid + 1;
+            else
+                to = mid;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,13 @@
+package scs.domain.event;
+
+/**
+ * One duck's standing, kept up to date as races are saved.
+ *
+ * @param rating - Elo-style rating, every duck starts at 1500
+ */
+public record LeaderboardEntry(Long duckId, String username, int races, int wins, double rating) {
+    @Override
+    public String toString() {
+        return username + " (" + Math.round(rating) + ", " + wins + "/" + races + " wins)";
+    }
+}
@@ -0,0 +1,100 @@
+package scs.domain.event;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs every live race on one scheduler thread.
+ * Each tick advances all running simulations by one fixed step, then hands each listener the latest frame.
+ * Frames are coalesced: a listener that has not picked up its previous frame yet only gets the newest one,
+ * so a slow screen never builds a backlog.
+ */
+public class RaceEngine implements AutoCloseable {
+    public static final long TICK_MILLIS = (long) (RaceSimulation.STEP_SECONDS * 1000);
+
+    public interface Listener {
+        void onFrame(RaceSimulation.Frame frame);
+
+        default void onFinish(RaceEvent.Result result) {
+        }
+    }
+
+    public final class Handle {
+        private final RaceSimulation simulation;
+        private final Listener listener;
+        private final AtomicReference<RaceSimulation.Frame> pending = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        private Handle(RaceSimulation simulation, Listener listener) {
+            this.simulation = simulation;
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            races.remove(this);
+        }
+
+        public boolean isDone() {
+            return cancelled || !races.contains(this);
+        }
+
+        // Only schedules a delivery when none is waiting, the waiting one picks up the newest frame
+        private void publish(RaceSimulation.Frame frame) {
+            if (pending.getAndSet(frame) != null)
+                return;
+
+            frameDelivery.execute(() -> {
+                RaceSimulation.Frame f = pending.getAndSet(null);
+                if (f != null && !cancelled)
+                    listener.onFrame(f);
+            });
+        }
+    }
+
+    private final List<Handle> races = new CopyOnWriteArrayList<>();
+    private final Executor frameDelivery;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r ->
+            Thread.ofPlatform().daemon().name("race-engine").unstarted(r));
+
+    // frameDelivery is where listeners run, e.g. Platform::runLater for screens
+    public RaceEngine(Executor frameDelivery) {
+        this.frameDelivery = frameDelivery;
+        scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public Handle start(RaceSimulation simulation, Listener listener) {
+        Handle handle = new Handle(simulation, listener);
+        races.add(handle);
+        return handle;
+    }
+
+    private void tick() {
+        for (Handle h : races) {
+            try {
+                h.simulation.step();
+                h.publish(h.simulation.snapshot());
+
+                if (h.simulation.isFinished()) {
+                    races.remove(h);
+                    RaceEvent.Result result = h.simulation.result();
+                    frameDelivery.execute(() -> {
+                        if (!h.cancelled)
+                            h.listener.onFinish(result);
+                    });
+                }
+            } catch (RuntimeException e) {
+                // one broken race must not stop the others
+                races.remove(h);
+                System.err.println("Race stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        races.clear();
+    }
+}
@@ -14,6 +14,11 @@ public class RaceEvent extends Event {
     public record Result(List<LaneResult> lanes, double totalTime) {
     }
 
+    public enum Strategy {
+        HEURISTIC,  // most resistant ducks, in that order
+        OPTIMAL     // smallest possible race time with the same lane order (resistance never rises), see LaneSolver
+    }
+
     private final List<Duck> candidates;
     private final double[] lanes;      // distances d1 .. dLaneCount
     private final int laneCount;       // lane number
@@ -29,6 +34,12 @@ public class RaceEvent extends Event {
         return d instanceof Swimming;
     }
 
+    public Result runRace(Strategy strategy) {
+        if (strategy == Strategy.OPTIMAL)
+            return LaneSolver.solve(candidates.stream().filter(RaceEvent::canSwim).toList(), lanes, laneCount);
+        return runRace();
+    }
+
     public Result runRace() {
         List<Duck> swimmers = candidates.stream()
                 .filter(RaceEvent::canSwim)
@@ -0,0 +1,163 @@
+package scs.domain.event;
+
+import scs.domain.user.Duck;
+import scs.utilities.errors.ValidationException;
+
+import java.util.*;
+
+/**
+ * Fixed-step model of one race, lanes are advanced together in plain arrays.
+ * Every step a duck covers speed / 5 and loses speed to fatigue, (10 - resistance) / 200, down to 1.
+ * With jitter > 0 each step's move is scaled by a random factor in [1 - jitter, 1 + jitter],
+ * drawn from a generator seeded once, so the same seed always gives the same race.
+ */
+public class RaceSimulation {
+    public static final double STEP_SECONDS = 0.05;
+
+    // finishTimes are NaN for lanes still swimming
+    public record Frame(long step, double time, double[] covered, double[] distances, double[] finishTimes) {
+        public double progress(int lane) {
+            return Math.min(1.0, covered[lane] / distances[lane]);
+        }
+
+        public boolean isFinished(int lane) {
+            return !Double.isNaN(finishTimes[lane]);
+        }
+
+        // Lane that crossed first so far, -1 if none did
+        public int leader() {
+            int best = -1;
+            for (int i = 0; i < finishTimes.length; ++i)
+                if (isFinished(i) && (best == -1 || finishTimes[i] < finishTimes[best]))
+                    best = i;
+            return best;
+        }
+    }
+
+    private final Long[] duckIds;
+    private final double[] initialSpeed;
+    private final double[] distances;
+    private final double[] speed;
+    private final double[] fatigue;
+    private final double[] covered;
+    private final double[] finishTime;    // NaN until the lane finishes
+    private final double jitter;
+    private final SplittableRandom random;
+
+    private long step;
+    private int running;
+
+    public RaceSimulation(List<Duck> racers, double[] distances, long seed, double jitter) {
+        this(idsOf(racers), speedsOf(racers), fatiguesOf(racers), distances, seed, jitter);
+    }
+
+    // Per-lane starting speed and fatigue given directly, e.g. perturbed copies of the ducks' stats
+    public RaceSimulation(Long[] duckIds, double[] speed, double[] fatigue, double[] distances, long seed, double jitter) {
+        if (duckIds.length != distances.length)
+            throw new ValidationException("race", "One duck is needed for every lane.");
+        if (jitter < 0 || jitter >= 1)
+            throw new ValidationException("race", "Jitter must be in [0, 1).");
+
+        int n = duckIds.length;
+        this.duckIds = duckIds.clone();
+        this.initialSpeed = speed.clone();
+        this.distances = Arrays.copyOf(distances, n);
+        this.speed = speed.clone();
+        this.fatigue = fatigue.clone();
+        this.covered = new double[n];
+        this.finishTime = new double[n];
+        Arrays.fill(finishTime, Double.NaN);
+        this.jitter = jitter;
+        this.random = new SplittableRandom(seed);
+        this.running = n;
+    }
+
+    public static double fatigueOf(Duck d) {
+        return (10.0 - Math.min(d.getResistance(), 10.0)) / 200.0;
+    }
+
+    private static Long[] idsOf(List<Duck> racers) {
+        return racers.stream().map(Duck::getId).toArray(Long[]::new);
+    }
+
+    private static double[] speedsOf(List<Duck> racers) {
+        return racers.stream().mapToDouble(Duck::getSpeed).toArray();
+    }
+
+    private static double[] fatiguesOf(List<Duck> racers) {
+        return racers.stream().mapToDouble(RaceSimulation::fatigueOf).toArray();
+    }
+
+    // No randomness, the same race the old per-duck threads ran
+    public RaceSimulation(List<Duck> racers, double[] distances) {
+        this(racers, distances, 0L, 0.0);
+    }
+
+    public int laneCount() {
+        return distances.length;
+    }
+
+    public boolean isFinished() {
+        return running == 0;
+    }
+
+    public double time() {
+        return step * STEP_SECONDS;
+    }
+
+    public void step() {
+        if (running == 0)
+            return;
+
+        for (int i = 0; i < covered.length; ++i) {
+            if (!Double.isNaN(finishTime[i]))
+                continue;
+
+            double move = speed[i] / 5.0;
+            if (jitter > 0)
+                move *= 1.0 + jitter * (2.0 * random.nextDouble() - 1.0);
+
+            double left = distances[i] - covered[i];
+            if (move >= left) {
+                // finished part-way through the step
+                finishTime[i] = (step + (move > 0 ? left / move : 0)) * STEP_SECONDS;
+                covered[i] = distances[i];
+                --running;
+            } else
+                covered[i] += move;
+
+            speed[i] = Math.max(1.0, speed[i] - fatigue[i]);
+        }
+        ++step;
+    }
+
+    // Headless fast-forward, no sleeping between steps
+    public RaceEvent.Result runToEnd() {
+        while (running > 0)
+            step();
+        return result();
+    }
+
+    public Frame snapshot() {
+        return new Frame(step, time(), covered.clone(), distances.clone(), finishTime.clone());
+    }
+
+    // Lanes that have not finished yet are left out
+    public RaceEvent.Result result() {
+        List<RaceEvent.LaneResult> lanes = new ArrayList<>();
+        double maxTime = 0.0;
+        for (int i = 0; i < duckIds.length; ++i) {
+            if (Double.isNaN(finishTime[i]))
+                continue;
+            lanes.add(new RaceEvent.LaneResult(duckIds[i], i + 1, distances[i], initialSpeed[i], finishTime[i]));
+            maxTime = Math.max(maxTime, finishTime[i]);
+        }
+        return new RaceEvent.Result(Collections.unmodifiableList(lanes), maxTime);
+    }
+
+    // First lane to cross the line, ties go to the lower lane
+    public Optional<RaceEvent.LaneResult> winner() {
+        return result().lanes().stream()
+                .min(Comparator.comparingDouble(RaceEvent.LaneResult::time));
+    }
+}
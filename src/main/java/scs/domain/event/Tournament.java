@@ -0,0 +1,208 @@
+package scs.domain.event;
+
+import scs.domain.user.Duck;
+import scs.utilities.errors.ValidationException;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Monte Carlo tournament between herds.
+ * Every herd fields its best team for the lanes (LaneSolver) and all teams swim the same lanes, once per race.
+ * Each race perturbs every duck's speed and fatigue and adds per-step jitter, so results form a distribution.
+ * <p>
+ * Races are cut into fixed chunks and every chunk gets its own generator, split from the seed in chunk order
+ * before anything runs. Samples are stored by race index, so the report depends on the seed only,
+ * never on how many threads ran it.
+ */
+public class Tournament {
+    private static final int CHUNK = 64;
+
+    public record Entry(Long herdId, String name, List<Duck> swimmers) {
+    }
+
+    /**
+     * @param speedSpread   - relative standard deviation of a duck's starting speed per race
+     * @param fatigueSpread - relative standard deviation of a duck's fatigue per race
+     * @param jitter        - per-step move noise, see RaceSimulation
+     */
+    public record Settings(int races, long seed, double speedSpread, double fatigueSpread, double jitter, int threads) {
+        public static Settings defaults(int races, long seed) {
+            return new Settings(races, seed, 0.10, 0.20, 0.05, Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    public record Stats(double mean, double p50, double p90, double best) {
+        static Stats of(double[] samples) {
+            double[] sorted = samples.clone();
+            Arrays.sort(sorted);
+            double sum = 0.0;
+            for (double t : sorted)
+                sum += t;
+            return new Stats(sum / sorted.length, percentile(sorted, 0.5), percentile(sorted, 0.9), sorted[0]);
+        }
+
+        private static double percentile(double[] sorted, double q) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.floor(q * sorted.length))];
+        }
+    }
+
+    public record DuckStats(Long duckId, Long herdId, int lane, int wins, double winProbability, Stats time) {
+    }
+
+    public record HerdStats(Long herdId, String name, int wins, double winProbability, Stats time) {
+    }
+
+    public record Report(int races, long seed, List<HerdStats> herds, List<DuckStats> ducks) {
+    }
+
+    private final List<Entry> herds;
+    private final double[] lanes;
+    private final Settings settings;
+
+    // per herd, the team in lane order
+    private final Long[][] teamIds;
+    private final double[][] teamSpeed;
+    private final double[][] teamFatigue;
+
+    public Tournament(List<Entry> herds, double[] lanes, Settings settings) {
+        if (herds.size() < 2)
+            throw new ValidationException("tournament", "At least two herds are needed.");
+        if (settings.races() <= 0)
+            throw new ValidationException("tournament", "Number of races must be positive.");
+
+        this.herds = List.copyOf(herds);
+        this.lanes = lanes.clone();
+        this.settings = settings;
+
+        int h = herds.size();
+        this.teamIds = new Long[h][];
+        this.teamSpeed = new double[h][];
+        this.teamFatigue = new double[h][];
+
+        for (int i = 0; i < h; ++i) {
+            Entry e = herds.get(i);
+            if (e.swimmers().size() < lanes.length)
+                throw new ValidationException("tournament", "Herd " + e.name() + " has fewer swimmers than lanes.");
+
+            Map<Long, Duck> byId = new HashMap<>();
+            for (Duck d : e.swimmers())
+                byId.put(d.getId(), d);
+
+            List<RaceEvent.LaneResult> team = LaneSolver.solve(e.swimmers(), lanes, lanes.length).lanes();
+            teamIds[i] = new Long[lanes.length];
+            teamSpeed[i] = new double[lanes.length];
+            teamFatigue[i] = new double[lanes.length];
+            for (RaceEvent.LaneResult r : team) {
+                Duck d = byId.get(r.duckId());
+                int lane = r.lane() - 1;
+                teamIds[i][lane] = d.getId();
+                teamSpeed[i][lane] = d.getSpeed();
+                teamFatigue[i][lane] = RaceSimulation.fatigueOf(d);
+            }
+        }
+    }
+
+    public Report run() {
+        int races = settings.races();
+        int h = herds.size();
+        int m = lanes.length;
+
+        // [race][herd] and [race][herd * m + lane], each race writes only its own row
+        double[][] herdTimes = new double[races][h];
+        double[][] laneTimes = new double[races][h * m];
+
+        SplittableRandom root = new SplittableRandom(settings.seed());
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < races; from += CHUNK) {
+            int start = from, end = Math.min(races, from + CHUNK);
+            SplittableRandom random = root.split();
+            chunks.add(() -> {
+                for (int race = start; race < end; ++race)
+                    runRace(random, herdTimes[race], laneTimes[race]);
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, settings.threads()));
+        try {
+            for (Future<Void> f : pool.invokeAll(chunks))
+                f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("tournament interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        return report(herdTimes, laneTimes);
+    }
+
+    private void runRace(SplittableRandom random, double[] herdTimes, double[] laneTimes) {
+        int m = lanes.length;
+        for (int i = 0; i < herds.size(); ++i) {
+            double[] speed = new double[m];
+            double[] fatigue = new double[m];
+            for (int lane = 0; lane < m; ++lane) {
+                speed[lane] = Math.max(0.1, teamSpeed[i][lane] * (1 + settings.speedSpread() * random.nextGaussian()));
+                fatigue[lane] = Math.max(0.0, teamFatigue[i][lane] * (1 + settings.fatigueSpread() * random.nextGaussian()));
+            }
+
+            RaceEvent.Result result = new RaceSimulation(teamIds[i], speed, fatigue, lanes,
+                    random.nextLong(), settings.jitter()).runToEnd();
+
+            herdTimes[i] = result.totalTime();
+            for (RaceEvent.LaneResult r : result.lanes())
+                laneTimes[i * m + r.lane() - 1] = r.time();
+        }
+    }
+
+    private Report report(double[][] herdTimes, double[][] laneTimes) {
+        int races = settings.races();
+        int h = herds.size();
+        int m = lanes.length;
+
+        // a herd wins when its slowest lane is home first, a duck when its lane is the fastest of the race
+        int[] herdWins = new int[h];
+        int[] duckWins = new int[h * m];
+        for (int race = 0; race < races; ++race) {
+            ++herdWins[argMin(herdTimes[race])];
+            ++duckWins[argMin(laneTimes[race])];
+        }
+
+        List<HerdStats> herdStats = new ArrayList<>(h);
+        for (int i = 0; i < h; ++i) {
+            double[] samples = new double[races];
+            for (int race = 0; race < races; ++race)
+                samples[race] = herdTimes[race][i];
+            Entry e = herds.get(i);
+            herdStats.add(new HerdStats(e.herdId(), e.name(), herdWins[i], (double) herdWins[i] / races, Stats.of(samples)));
+        }
+
+        List<DuckStats> duckStats = new ArrayList<>(h * m);
+        for (int i = 0; i < h; ++i)
+            for (int lane = 0; lane < m; ++lane) {
+                int k = i * m + lane;
+                double[] samples = new double[races];
+                for (int race = 0; race < races; ++race)
+                    samples[race] = laneTimes[race][k];
+                duckStats.add(new DuckStats(teamIds[i][lane], herds.get(i).herdId(), lane + 1,
+                        duckWins[k], (double) duckWins[k] / races, Stats.of(samples)));
+            }
+
+        herdStats.sort(Comparator.comparingDouble(HerdStats::winProbability).reversed());
+        duckStats.sort(Comparator.comparingDouble(DuckStats::winProbability).reversed());
+        return new Report(races, settings.seed(), List.copyOf(herdStats), List.copyOf(duckStats));
+    }
+
+    // ties go to the lower index
+    private static int argMin(double[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; ++i)
+            if (values[i] < values[best])
+                best = i;
+        return best;
+    }
+}
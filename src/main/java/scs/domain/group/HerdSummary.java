@@ -0,0 +1,21 @@
+package scs.domain.group;
+
+/**
+ * A herd without its members, with the aggregates kept on the Herds row.
+ *
+ * @param memberCount   - number of ducks in the herd
+ * @param sumSpeed      - sum of the members' speed
+ * @param sumResistance - sum of the members' resistance
+ */
+public record HerdSummary(Long id, String name, int memberCount, double sumSpeed, double sumResistance) {
+    public Performance performance() {
+        if (memberCount == 0)
+            return Performance.ZERO;
+        return new Performance(sumSpeed / memberCount, sumResistance / memberCount);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + memberCount + ")";
+    }
+}
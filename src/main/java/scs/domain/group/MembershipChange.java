@@ -0,0 +1,36 @@
+package scs.domain.group;
+
+import scs.domain.user.Duck;
+
+/**
+ * One duck joining or leaving a herd, published instead of the whole reloaded herd.
+ *
+ * @param duck      - the duck that joined, null on REMOVED
+ * @param aggregate - the herd's aggregates after the change
+ */
+public record MembershipChange(Long herdId, Long duckId, Kind kind, Duck duck, HerdSummary aggregate) {
+    public enum Kind {
+        ADDED,
+        REMOVED
+    }
+
+    public static MembershipChange added(Duck duck, HerdSummary aggregate) {
+        return new MembershipChange(aggregate.id(), duck.getId(), Kind.ADDED, duck, aggregate);
+    }
+
+    public static MembershipChange removed(Long duckId, HerdSummary aggregate) {
+        return new MembershipChange(aggregate.id(), duckId, Kind.REMOVED, null, aggregate);
+    }
+
+    // Applies the change to a locally held copy of the herd
+    @SuppressWarnings("unchecked")  // the duck was published by this herd's own service, so it has the herd's type
+    public <T extends Duck> void applyTo(Herd<T> herd) {
+        if (herd == null || !herdId.equals(herd.getId()))
+            return;
+
+        if (kind == Kind.REMOVED)
+            herd.removeDuckById(duckId);
+        else if (herd.findDuckById(duckId).isEmpty())
+            herd.addDuck((T) duck);
+    }
+}
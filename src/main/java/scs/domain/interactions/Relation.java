@@ -0,0 +1,9 @@
+package scs.domain.interactions;
+
+// How another user relates to the one looking at them
+public enum Relation {
+    FRIEND,
+    PENDING_OUT,    // the viewer sent a request
+    PENDING_IN,     // the viewer received a request
+    NONE
+}
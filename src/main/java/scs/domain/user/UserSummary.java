@@ -0,0 +1,37 @@
+package scs.domain.user;
+
+/**
+ * Light view of a user for lists: no credentials, no profile or duck stats.
+ * userType is "PERSON" or "DUCK", duckType is null for people.
+ */
+public record UserSummary(Long id, String username, String userType, String duckType) {
+    public static UserSummary of(User user) {
+        return switch (user) {
+            case SwimmingDuck d -> new UserSummary(d.getId(), d.getUsername(), "DUCK", "SWIMMING");
+            case FlyingDuck d -> new UserSummary(d.getId(), d.getUsername(), "DUCK", "FLYING");
+            case HybridDuck d -> new UserSummary(d.getId(), d.getUsername(), "DUCK", "HYBRID");
+            default -> new UserSummary(user.getId(), user.getUsername(), "PERSON", null);
+        };
+    }
+
+    public boolean isDuck() {
+        return duckType != null;
+    }
+
+    // Stub carrying only id and username, for places that still take a User (e.g. message recipients)
+    public User toUser() {
+        if (duckType == null)
+            return new Person.Builder(id).username(username).build();
+
+        return switch (duckType) {
+            case "SWIMMING" -> new SwimmingDuck(id, username, null, null, 0, 0);
+            case "FLYING" -> new FlyingDuck(id, username, null, null, 0, 0);
+            default -> new HybridDuck(id, username, null, null, 0, 0);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return username + ", id: " + id + (isDuck() ? " - Duck" : " - Person");
+    }
+}
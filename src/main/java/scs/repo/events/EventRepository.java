@@ -13,6 +13,7 @@ public interface EventRepository {
 
     Event findById(Long id);
     List<Event> getAll();
+    boolean existsById(Long id);
 
     // Subscribers
     void addSubscriber(Long eventId, Long userId);
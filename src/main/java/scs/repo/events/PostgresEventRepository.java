@@ -45,17 +45,14 @@ public class PostgresEventRepository implements EventRepository {
         for (Event e : events)
             eventMap.put(e.getId(), e);
 
-        String placeholders = String.join(",", Collections.nCopies(events.size(), "?"));
-        String sql = String.format("""
+        String sql = """
                 SELECT id_event, id_user
                 FROM public."EventSubscribers"
-                WHERE id_event IN (%s)
-                """, placeholders);
+                WHERE id_event = ANY(?)
+                """;
 
         try (PreparedStatement ps = con.prepareStatement(sql)) {
-            int index = 1;
-            for (Event e : events)
-                ps.setLong(index++, e.getId());
+            ps.setArray(1, con.createArrayOf("bigint", eventMap.keySet().toArray()));
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -155,6 +152,23 @@ public class PostgresEventRepository implements EventRepository {
         }
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        String sql = """
+                SELECT 1 FROM public."Events"
+                WHERE "idEvent" = ?
+                """;
+
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("exists event", e.getMessage());
+        }
+    }
+
     @Override
     public List<Event> getAll() {
         String sql = """
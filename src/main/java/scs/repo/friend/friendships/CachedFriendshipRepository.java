@@ -0,0 +1,120 @@
+package scs.repo.friend.friendships;
+
+import scs.domain.interactions.Friendship;
+import scs.domain.user.User;
+import scs.utilities.events.ChangeEventType;
+import scs.utilities.events.EntityChangeEvent;
+
+import java.util.*;
+
+/**
+ * Keeps the whole friendship graph in memory in front of another repository.
+ * Reads never touch the database, writes go through to the delegate first and then update the graph.
+ */
+public class CachedFriendshipRepository implements FriendshipRepository {
+    private final FriendshipRepository delegate;
+    private volatile FriendGraph graph;
+
+    public CachedFriendshipRepository(FriendshipRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    // Loaded on first use, with a single streamed query
+    private FriendGraph graph() {
+        FriendGraph g = graph;
+        if (g == null) {
+            synchronized (this) {
+                g = graph;
+                if (g == null) {
+                    g = FriendGraph.load(delegate::forEachEdge);
+                    graph = g;
+                }
+            }
+        }
+        return g;
+    }
+
+    // Forces a reload on next read
+    public synchronized void invalidate() {
+        graph = null;
+    }
+
+    public FriendGraph getGraph() {
+        return graph();
+    }
+
+    // Hooked to FriendshipService, applying the same change twice is harmless
+    public void onFriendshipChanged(EntityChangeEvent<Friendship> event) {
+        Friendship f = event.data();
+        if (event.type() == ChangeEventType.ADD)
+            graph().addFriendship(f.user1(), f.user2());
+        else if (event.type() == ChangeEventType.DELETE)
+            graph().removeFriendship(f.user1(), f.user2());
+    }
+
+    // Hooked to UserService, the database drops a deleted user's friendships by cascade
+    public void onUserChanged(EntityChangeEvent<User> event) {
+        if (event.type() == ChangeEventType.DELETE)
+            graph().removeUser(event.data().getId());
+    }
+
+    @Override
+    public void addUser(Long id) {
+        delegate.addUser(id);
+    }
+
+    @Override
+    public void removeUser(Long id) {
+        delegate.removeUser(id);
+        graph().removeUser(id);
+    }
+
+    @Override
+    public void addFriendship(Long id1, Long id2) {
+        delegate.addFriendship(id1, id2);
+        graph().addFriendship(id1, id2);
+    }
+
+    @Override
+    public void removeFriendship(Long id1, Long id2) {
+        delegate.removeFriendship(id1, id2);
+        graph().removeFriendship(id1, id2);
+    }
+
+    @Override
+    public Set<Long> getFriends(Long id) {
+        long[] friends = graph().friendsOf(id);
+
+        Set<Long> set = new LinkedHashSet<>(friends.length * 2);
+        for (long f : friends)
+            set.add(f);
+        return set;
+    }
+
+    @Override
+    public Set<Long> getAllUsers() {
+        return graph().users();
+    }
+
+    @Override
+    public boolean areFriends(Long id1, Long id2) {
+        return graph().areFriends(id1, id2);
+    }
+
+    @Override
+    public int nrFriends(Long id) {
+        return graph().nrFriends(id);
+    }
+
+    @Override
+    public List<Long[]> findAllEdges() {
+        List<Long[]> list = new ArrayList<>();
+        forEachEdge((id1, id2) -> list.add(new Long[]{id1, id2}));
+        return list;
+    }
+
+    @Override
+    public void forEachEdge(EdgeConsumer consumer) {
+        graph().forEachEdge(consumer);
+    }
+}
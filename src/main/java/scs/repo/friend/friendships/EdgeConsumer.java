@@ -0,0 +1,7 @@
+package scs.repo.friend.friendships;
+
+// Receives friendships one by one, without boxing them
+@FunctionalInterface
+public interface EdgeConsumer {
+    void accept(long id1, long id2);
+}
@@ -0,0 +1,132 @@
+package scs.repo.friend.friendships;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Compact undirected friendship graph: every user maps to a sorted long[] of friend ids.
+ * Arrays are never modified in place, writes swap in a new array,
+ * so readers can use whatever array they got without locking.
+ */
+public final class FriendGraph {
+    private static final long[] NONE = new long[0];
+
+    private final Map<Long, long[]> adj = new ConcurrentHashMap<>();
+
+    public FriendGraph() {
+    }
+
+    // growable friend list, only used while loading
+    private static final class Row {
+        private long[] friends = new long[4];
+        private int size = 0;
+
+        void add(long id) {
+            if (size == friends.length)
+                friends = Arrays.copyOf(friends, size * 2);
+            friends[size++] = id;
+        }
+
+        long[] toSortedArray() {
+            long[] res = Arrays.copyOf(friends, size);
+            Arrays.sort(res);
+
+            // drop duplicates, in case the source repeats an edge
+            int k = 0;
+            for (int i = 0; i < res.length; ++i)
+                if (k == 0 || res[i] != res[k - 1])
+                    res[k++] = res[i];
+            return k == res.length ? res : Arrays.copyOf(res, k);
+        }
+    }
+
+    // Builds the graph from a stream of edges, e.g. FriendshipRepository::forEachEdge
+    public static FriendGraph load(Consumer<EdgeConsumer> source) {
+        Map<Long, Row> rows = new HashMap<>();
+        source.accept((u, v) -> {
+            rows.computeIfAbsent(u, k -> new Row()).add(v);
+            rows.computeIfAbsent(v, k -> new Row()).add(u);
+        });
+
+        FriendGraph g = new FriendGraph();
+        rows.forEach((id, row) -> g.adj.put(id, row.toSortedArray()));
+        return g;
+    }
+
+    public void forEachEdge(EdgeConsumer consumer) {
+        adj.forEach((u, friends) -> {
+            for (long v : friends)
+                if (u < v)
+                    consumer.accept(u, v);
+        });
+    }
+
+    private static long[] with(long[] friends, long id) {
+        int pos = Arrays.binarySearch(friends, id);
+        if (pos >= 0)
+            return friends;
+
+        int at = -pos - 1;
+        long[] res = new long[friends.length + 1];
+        System.arraycopy(friends, 0, res, 0, at);
+        res[at] = id;
+        System.arraycopy(friends, at, res, at + 1, friends.length - at);
+        return res;
+    }
+
+    private static long[] without(long[] friends, long id) {
+        int at = Arrays.binarySearch(friends, id);
+        if (at < 0)
+            return friends;
+
+        if (friends.length == 1)
+            return null;    // drops the node
+
+        long[] res = new long[friends.length - 1];
+        System.arraycopy(friends, 0, res, 0, at);
+        System.arraycopy(friends, at + 1, res, at, friends.length - at - 1);
+        return res;
+    }
+
+    public void addFriendship(long u, long v) {
+        adj.merge(u, new long[]{v}, (old, ignored) -> with(old, v));
+        adj.merge(v, new long[]{u}, (old, ignored) -> with(old, u));
+    }
+
+    public void removeFriendship(long u, long v) {
+        adj.computeIfPresent(u, (k, old) -> without(old, v));
+        adj.computeIfPresent(v, (k, old) -> without(old, u));
+    }
+
+    public void removeUser(long id) {
+        long[] friends = adj.remove(id);
+        if (friends == null)
+            return;
+
+        for (long f : friends)
+            adj.computeIfPresent(f, (k, old) -> without(old, id));
+    }
+
+    public boolean areFriends(long u, long v) {
+        long[] friends = adj.getOrDefault(u, NONE);
+        return Arrays.binarySearch(friends, v) >= 0;
+    }
+
+    // sorted, must not be modified by the caller
+    public long[] friendsOf(long id) {
+        return adj.getOrDefault(id, NONE);
+    }
+
+    public int nrFriends(long id) {
+        return adj.getOrDefault(id, NONE).length;
+    }
+
+    public Set<Long> users() {
+        return new HashSet<>(adj.keySet());
+    }
+
+    public int size() {
+        return adj.size();
+    }
+}
@@ -16,4 +16,7 @@ public interface FriendshipRepository {
     int nrFriends(Long id1);
 
     List<Long[]> findAllEdges();
+
+    // Streams every friendship once, in bounded memory
+    void forEachEdge(EdgeConsumer consumer);
 }
@@ -7,6 +7,8 @@ import java.sql.*;
 import java.util.*;
 
 public class PostgresFriendshipRepository implements FriendshipRepository {
+    private static final int EDGE_FETCH_SIZE = 10_000;
+
     public PostgresFriendshipRepository() {
     }
 
@@ -138,13 +140,34 @@ public class PostgresFriendshipRepository implements FriendshipRepository {
 
     @Override
     public List<Long[]> findAllEdges() {
+        List<Long[]> list = new ArrayList<>();
+        forEachEdge((id1, id2) -> list.add(new Long[]{id1, id2}));
+        return list;
+    }
+
+    @Override
+    public void forEachEdge(EdgeConsumer consumer) {
         String sql = """
                  SELECT id_1, id_2 FROM public."Friendships"
                 """;
-        try (Connection con = Db.getConnection(); Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
-            List<Long[]> list = new ArrayList<>();
-            while (rs.next()) list.add(new Long[]{rs.getLong(1), rs.getLong(2)});
-            return list;
+
+        try (Connection con = Db.getConnection()) {
+            // the driver only uses a server-side cursor (fetch size) inside a transaction
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(EDGE_FETCH_SIZE);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next())
+                        consumer.accept(rs.getLong(1), rs.getLong(2));
+                }
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             throw new DatabaseException("find edges", e.getMessage());
         }
@@ -1,6 +1,7 @@
 package scs.repo.friend.requests;
 
 import scs.domain.interactions.FriendRequest;
+import scs.domain.interactions.Relation;
 import scs.domain.interactions.RequestStatus;
 import scs.domain.user.User;
 import scs.repo.users.PostgresUserRepository;
@@ -12,7 +13,10 @@ import scs.utilities.errors.NotFoundException;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class PostgresRequestRepository implements RequestRepository {
     private final UserRepository userRepo;
@@ -158,4 +162,41 @@ public class PostgresRequestRepository implements RequestRepository {
 
         return list;
     }
+
+    @Override
+    public Map<Long, Relation> findPendingRelations(Long viewerId, Collection<Long> otherIds) {
+        Map<Long, Relation> relations = new HashMap<>();
+        if (otherIds == null || otherIds.isEmpty())
+            return relations;
+
+        String sql = """
+                SELECT from_user_id, to_user_id FROM public."FriendRequests"
+                WHERE status = 'PENDING'
+                  AND ((from_user_id = ? AND to_user_id = ANY(?))
+                    OR (to_user_id = ? AND from_user_id = ANY(?)))
+                """;
+
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            Array ids = con.createArrayOf("bigint", otherIds.toArray());
+            ps.setLong(1, viewerId);
+            ps.setArray(2, ids);
+            ps.setLong(3, viewerId);
+            ps.setArray(4, ids);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long from = rs.getLong("from_user_id");
+                    long to = rs.getLong("to_user_id");
+                    if (from == viewerId)
+                        relations.put(to, Relation.PENDING_OUT);
+                    else
+                        relations.put(from, Relation.PENDING_IN);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("find relations", e.getMessage());
+        }
+
+        return relations;
+    }
 }
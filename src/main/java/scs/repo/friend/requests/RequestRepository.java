@@ -1,8 +1,11 @@
 package scs.repo.friend.requests;
 
 import scs.domain.interactions.FriendRequest;
+import scs.domain.interactions.Relation;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface RequestRepository {
     void save(FriendRequest request);
@@ -12,4 +15,7 @@ public interface RequestRepository {
     FriendRequest findOne(Long fromId, Long toId);
 
     List<FriendRequest> findPending(Long toUserId);
+
+    // PENDING_OUT / PENDING_IN for every id that has a pending request with the viewer
+    Map<Long, Relation> findPendingRelations(Long viewerId, Collection<Long> otherIds);
 }
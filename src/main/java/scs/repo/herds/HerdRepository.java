@@ -1,13 +1,17 @@
 package scs.repo.herds;
 
 import scs.domain.group.Herd;
+import scs.domain.group.HerdSummary;
 import scs.domain.user.Duck;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
 
 import java.util.List;
 
 public interface HerdRepository<T extends Duck> {
     void add(Herd<T> herd);
-    void addDuck(Long cardId, Long duckId);
+    // Both return the herd's aggregates after the change, null if membership did not change
+    HerdSummary addDuck(Long cardId, Long duckId);
 
     void update(Herd<T> herd);
 
@@ -16,8 +20,13 @@ public interface HerdRepository<T extends Duck> {
 
     List<Herd<T>> getAll();
 
+    // Aggregates only, members are not loaded
+    HerdSummary findSummary(Long id);
+    List<HerdSummary> getAllSummaries();
+    CursorPage<HerdSummary> findSummaries(Cursor cursor);
+
     void deleteById(Long id);
-    void removeDuck(Long cardId, Long duckId);
+    HerdSummary removeDuck(Long cardId, Long duckId);
 
     boolean existsById(Long id);
     boolean existsByName(String name);
@@ -1,12 +1,14 @@
 package scs.repo.herds;
 
 import scs.domain.group.Herd;
+import scs.domain.group.HerdSummary;
 import scs.domain.user.Duck;
-import scs.domain.user.User;
 import scs.repo.users.PostgresUserRepository;
 import scs.repo.users.UserRepository;
 import scs.utilities.database.Db;
 import scs.utilities.errors.*;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
 
 import java.sql.*;
 import java.util.*;
@@ -25,25 +27,28 @@ public class PostgresHerdRepository implements HerdRepository<Duck> {
         return new Herd<>(id, name);
     }
 
+    private HerdSummary mapSummary(ResultSet rs) throws SQLException {
+        return new HerdSummary(
+                rs.getLong("idHerd"),
+                rs.getString("herdName"),
+                rs.getInt("member_count"),
+                rs.getDouble("sum_speed"),
+                rs.getDouble("sum_resistance"));
+    }
+
     private void loadMembers(Herd<Duck> herd, Connection con) throws SQLException {
         String sql = """
-                SELECT 
-                    u."idUser", u.username, u.email, u.password,
-                    p.name, p.firstName, p."birthDate", p.occupation,
-                    d.speed, d.resistance, d.duck_type
+                SELECT u."idUser", u.username, u.email, d.speed, d.resistance, d.duck_type
                 FROM public."HerdMembers" hm
                 JOIN public."Users" u ON hm.id_duck = u."idUser"
-                LEFT JOIN public."People" p ON u."idUser" = p."idPerson"
-                LEFT JOIN public."Ducks" d ON u."idUser" = d."idDuck"
+                JOIN public."Ducks" d ON u."idUser" = d."idDuck"
                 WHERE hm.id_herd = ?    
                 """;
         try (PreparedStatement ps = con.prepareStatement(sql)) {
             ps.setLong(1, herd.getId());
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    User d = PostgresUserRepository.mapRow(rs);
-                    if (d instanceof Duck duck)
-                        herd.addDuck(duck);
+                    herd.addDuck(PostgresUserRepository.mapDuck(rs));
                 }
             }
         }
@@ -57,34 +62,24 @@ public class PostgresHerdRepository implements HerdRepository<Duck> {
         for (Herd<Duck> h : herds)
             herdMap.put(h.getId(), h);
 
-        String placeholders = String.join(",", Collections.nCopies(herds.size(), "?"));
-
         String sql = """
                 SELECT hm.id_herd,
-                u."idUser", u.username, u.email, u.password,
-                p.name, p.firstName, p."birthDate", p.occupation,
-                d.speed, d.resistance, d.duck_type
+                u."idUser", u.username, u.email, d.speed, d.resistance, d.duck_type
                 FROM public."HerdMembers" hm
                 JOIN public."Users" u ON hm.id_duck = u."idUser"
-                LEFT JOIN public."People" p ON u."idUser" = p."idPerson"
-                LEFT JOIN public."Ducks" d ON u."idUser" = d."idDuck"
-                WHERE hm.id_herd IN (%s)
-                """.formatted(placeholders);
+                JOIN public."Ducks" d ON u."idUser" = d."idDuck"
+                WHERE hm.id_herd = ANY(?)
+                """;
 
         try (PreparedStatement ps = con.prepareStatement(sql)) {
-            int idx = 1;
-            for (Herd<Duck> h : herds)
-                ps.setLong(idx++, h.getId());
+            ps.setArray(1, con.createArrayOf("bigint", herdMap.keySet().toArray()));
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     long herdId = rs.getLong("id_herd");
-                    User user = PostgresUserRepository.mapRow(rs);
-                    if (user instanceof Duck duck) {
-                        Herd<Duck> h = herdMap.get(herdId);
-                        if (h != null)
-                            h.addDuck(duck);
-                    }
+                    Herd<Duck> h = herdMap.get(herdId);
+                    if (h != null)
+                        h.addDuck(PostgresUserRepository.mapDuck(rs));
                 }
             }
         }
@@ -113,7 +108,8 @@ public class PostgresHerdRepository implements HerdRepository<Duck> {
         }
     }
 
-    public void addDuck(Long herdId, Long duckId) {
+    @Override
+    public HerdSummary addDuck(Long herdId, Long duckId) {
         String sql = """
                 INSERT INTO public."HerdMembers"(id_herd, id_duck)
                 VALUES(?, ?)
@@ -123,7 +119,10 @@ public class PostgresHerdRepository implements HerdRepository<Duck> {
         try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
             ps.setLong(1, herdId);
             ps.setLong(2, duckId);
-            ps.executeUpdate();
+            if (ps.executeUpdate() == 0)
+                return null;
+
+            return loadSummary(herdId, con);
         } catch (SQLException e) {
             throw new DatabaseException("add herd member", e.getMessage());
         }
@@ -214,6 +213,88 @@ public class PostgresHerdRepository implements HerdRepository<Duck> {
         }
     }
 
+    // member_count and the sums are kept by triggers on HerdMembers and Ducks
+    private static final String SUMMARY_SELECT = """
+            SELECT "idHerd", "herdName", member_count, sum_speed, sum_resistance
+            FROM public."Herds"
+            """;
+
+    // Reads the aggregates the membership triggers just updated, on the connection that made the change
+    private HerdSummary loadSummary(Long id, Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(SUMMARY_SELECT + " WHERE \"idHerd\" = ?")) {
+            ps.setLong(1, id);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next())
+                    throw new NotFoundException("herd", "herd not found.");
+                return mapSummary(rs);
+            }
+        }
+    }
+
+    @Override
+    public HerdSummary findSummary(Long id) {
+        try (Connection con = Db.getConnection()) {
+            return loadSummary(id, con);
+        } catch (SQLException e) {
+            throw new DatabaseException("find herd summary", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<HerdSummary> getAllSummaries() {
+        try (Connection con = Db.getConnection(); Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(SUMMARY_SELECT + " ORDER BY \"idHerd\"")) {
+            List<HerdSummary> list = new ArrayList<>();
+            while (rs.next())
+                list.add(mapSummary(rs));
+            return list;
+        } catch (SQLException e) {
+            throw new DatabaseException("get herd summaries", e.getMessage());
+        }
+    }
+
+    @Override
+    public CursorPage<HerdSummary> findSummaries(Cursor cursor) {
+        boolean backwards = cursor.getDirection() == Cursor.Direction.PREVIOUS;
+
+        String sql = SUMMARY_SELECT
+                     + (cursor.isFirst() ? "" : backwards ? " WHERE \"idHerd\" < ?" : " WHERE \"idHerd\" > ?")
+                     + " ORDER BY \"idHerd\" " + (backwards ? "DESC" : "ASC") + " LIMIT ?";
+
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            int idx = 1;
+            if (!cursor.isFirst())
+                ps.setLong(idx++, cursor.getKey());
+            // one extra row tells us if there is anything beyond this page
+            ps.setInt(idx, cursor.getPageSize() + 1);
+
+            List<HerdSummary> rows = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    rows.add(mapSummary(rs));
+            }
+
+            boolean more = rows.size() > cursor.getPageSize();
+            if (more)
+                rows.removeLast();
+
+            if (backwards)
+                Collections.reverse(rows);
+
+            if (rows.isEmpty())
+                return CursorPage.empty(cursor.getPageSize());
+
+            boolean hasNext = backwards || more;
+            boolean hasPrevious = backwards ? more : !cursor.isFirst();
+
+            return new CursorPage<>(rows, rows.getFirst().id(), rows.getLast().id(),
+                    hasNext, hasPrevious, cursor.getPageSize());
+        } catch (SQLException e) {
+            throw new DatabaseException("page herd summaries", e.getMessage());
+        }
+    }
+
     @Override
     public void deleteById(Long id) {
         String sql = """
@@ -230,7 +311,8 @@ public class PostgresHerdRepository implements HerdRepository<Duck> {
         }
     }
 
-    public void removeDuck(Long herdId, Long duckId) {
+    @Override
+    public HerdSummary removeDuck(Long herdId, Long duckId) {
         String sql = """
                 DELETE FROM public."HerdMembers"
                 WHERE id_herd = ? AND id_duck = ?
@@ -239,7 +321,10 @@ public class PostgresHerdRepository implements HerdRepository<Duck> {
         try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
             ps.setLong(1, herdId);
             ps.setLong(2, duckId);
-            ps.executeUpdate();
+            if (ps.executeUpdate() == 0)
+                return null;
+
+            return loadSummary(herdId, con);
         } catch (SQLException e) {
             throw new DatabaseException("remove herd member", e.getMessage());
         }
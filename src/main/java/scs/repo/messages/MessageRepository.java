@@ -1,12 +1,22 @@
 package scs.repo.messages;
 
 import scs.domain.interactions.Message;
+import scs.utilities.paging.MessageCursor;
+import scs.utilities.paging.MessagePage;
 
 import java.util.List;
 
 public interface MessageRepository {
     void save(Message m);
 
+    // Saves all messages in one transaction and sets their ids
+    void saveAll(List<Message> messages);
+
+    // Saves m once for every subscriber of the event, returns the recipient ids (empty -> nothing saved)
+    long[] saveBroadcast(Message m, Long eventId);
+
     Message findById(Long id);
     List<Message> findConversation(Long u1, Long u2);
+
+    MessagePage findConversation(Long u1, Long u2, MessageCursor cursor);
 }
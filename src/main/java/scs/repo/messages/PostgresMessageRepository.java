@@ -7,6 +7,8 @@ import scs.repo.users.PostgresUserRepository;
 import scs.repo.users.UserRepository;
 import scs.utilities.database.Db;
 import scs.utilities.errors.DatabaseException;
+import scs.utilities.paging.MessageCursor;
+import scs.utilities.paging.MessagePage;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -29,29 +31,22 @@ public class PostgresMessageRepository implements MessageRepository {
         for (Message m: messages)
             msgMap.put(m.getId(), m);
 
-        String placeholders = String.join(",", Collections.nCopies(messages.size(), "?"));
-
         String sql = """
-                SELECT mr.id_message,
-                       u."idUser", u.username, u.email, u.password,
-                       p.name, p.firstName, p."birthDate", p.occupation,
-                       d.speed, d.resistance, d.duck_type
+                SELECT mr.id_message, u."idUser", u.username, d.duck_type
                 FROM public."MessageRecipients" mr
                 JOIN public."Users" u ON mr.id_recipient = u."idUser"
-                LEFT JOIN public."People" p ON u."idUser" = p."idPerson"
                 LEFT JOIN public."Ducks" d ON u."idUser" = d."idDuck"
-                WHERE mr.id_message IN (%s)
-                """.formatted(placeholders);
+                WHERE mr.id_message = ANY(?)
+                """;
 
         try (PreparedStatement ps = con.prepareStatement(sql)) {
-            int idx = 1;
-            for (Message m: messages)
-                ps.setLong(idx++, m.getId());
+            ps.setArray(1, con.createArrayOf("bigint", msgMap.keySet().toArray()));
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     Long msgId = rs.getLong("id_message");
-                    User recipient = PostgresUserRepository.mapRow(rs);
+                    // recipients are only matched by id and shown by name
+                    User recipient = PostgresUserRepository.mapSummary(rs).toUser();
 
                     Message m = msgMap.get(msgId);
                     if (m != null)
@@ -62,12 +57,14 @@ public class PostgresMessageRepository implements MessageRepository {
     }
 
     private Message mapRow(ResultSet rs, Connection con) throws SQLException {
+        return mapRow(rs, PostgresUserRepository.mapRow(rs));
+    }
+
+    private Message mapRow(ResultSet rs, User sender) throws SQLException {
         Long id = rs.getLong("id_message");
         String text = rs.getString("message_text");
         LocalDateTime date = rs.getTimestamp("send_at").toLocalDateTime();
 
-        User sender = PostgresUserRepository.mapRow(rs);
-
         Message replyMsg = null;
         Long replyId = rs.getLong("reply_to");
 
@@ -93,9 +90,10 @@ public class PostgresMessageRepository implements MessageRepository {
                 VALUES (?, ?, ?, ?) RETURNING id_message
                 """;
 
+        // every recipient row carries the canonical (low, high) pair of its two-person conversation
         String insertRcpt = """
-                INSERT INTO public."MessageRecipients"(id_message, id_recipient)
-                VALUES (?, ?)
+                INSERT INTO public."MessageRecipients"(id_message, id_recipient, conv_low, conv_high, send_at)
+                VALUES (?, ?, ?, ?, ?)
                 """;
 
         try (Connection con = Db.getConnection()) {
@@ -121,9 +119,14 @@ public class PostgresMessageRepository implements MessageRepository {
                 }
 
                 try (PreparedStatement ps = con.prepareStatement(insertRcpt)) {
+                    long sender = m.getFrom().getId();
+                    Timestamp sentAt = Timestamp.valueOf(m.getDate());
                     for (User recipient : m.getTo()) {
                         ps.setLong(1, newId);
                         ps.setLong(2, recipient.getId());
+                        ps.setLong(3, Math.min(sender, recipient.getId()));
+                        ps.setLong(4, Math.max(sender, recipient.getId()));
+                        ps.setTimestamp(5, sentAt);
                         ps.addBatch();  // Batch insert for performance
                     }
                     ps.executeBatch();
@@ -142,17 +145,200 @@ public class PostgresMessageRepository implements MessageRepository {
         }
     }
 
+    // Group commit: ids are reserved up front so each message is matched to its id without relying on
+    // RETURNING order, then one insert from column arrays and one recipients batch.
+    @Override
+    public void saveAll(List<Message> messages) {
+        if (messages.isEmpty())
+            return;
+
+        String reserveIds = """
+                SELECT nextval(pg_get_serial_sequence('public."Messages"', 'id_message'))
+                FROM generate_series(1, ?)
+                """;
+
+        String insertMsg = """
+                INSERT INTO public."Messages"(id_message, from_user_id, message_text, send_at, reply_to)
+                SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::text[], ?::timestamp[], ?::bigint[])
+                """;
+
+        String insertRcpt = """
+                INSERT INTO public."MessageRecipients"(id_message, id_recipient, conv_low, conv_high, send_at)
+                VALUES (?, ?, ?, ?, ?)
+                """;
+
+        try (Connection con = Db.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                List<Long> ids = new ArrayList<>(messages.size());
+                try (PreparedStatement ps = con.prepareStatement(reserveIds)) {
+                    ps.setInt(1, messages.size());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next())
+                            ids.add(rs.getLong(1));
+                    }
+                }
+
+                // one array per column, the statement text is the same for any batch size
+                int n = messages.size();
+                Long[] senders = new Long[n];
+                String[] texts = new String[n];
+                Timestamp[] dates = new Timestamp[n];
+                Long[] replies = new Long[n];
+                for (int i = 0; i < n; ++i) {
+                    Message m = messages.get(i);
+                    senders[i] = m.getFrom().getId();
+                    texts[i] = m.getText();
+                    dates[i] = Timestamp.valueOf(m.getDate());
+                    replies[i] = m.getReply() != null ? m.getReply().getId() : null;
+                }
+
+                try (PreparedStatement ps = con.prepareStatement(insertMsg)) {
+                    ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+                    ps.setArray(2, con.createArrayOf("bigint", senders));
+                    ps.setArray(3, con.createArrayOf("text", texts));
+                    ps.setArray(4, con.createArrayOf("timestamp", dates));
+                    ps.setArray(5, con.createArrayOf("bigint", replies));
+                    ps.executeUpdate();
+                }
+
+                try (PreparedStatement ps = con.prepareStatement(insertRcpt)) {
+                    for (int i = 0; i < messages.size(); ++i) {
+                        Message m = messages.get(i);
+                        long sender = m.getFrom().getId();
+                        Timestamp sentAt = Timestamp.valueOf(m.getDate());
+                        for (User recipient : m.getTo()) {
+                            ps.setLong(1, ids.get(i));
+                            ps.setLong(2, recipient.getId());
+                            ps.setLong(3, Math.min(sender, recipient.getId()));
+                            ps.setLong(4, Math.max(sender, recipient.getId()));
+                            ps.setTimestamp(5, sentAt);
+                            ps.addBatch();
+                        }
+                    }
+                    ps.executeBatch();
+                }
+
+                con.commit();
+                for (int i = 0; i < messages.size(); ++i)
+                    messages.get(i).setId(ids.get(i));
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("save messages", e.getMessage());
+        }
+    }
+
+    // Fan-out without loading users: recipients are copied from EventSubscribers on the server,
+    // in keyset chunks so a huge event never builds one giant statement.
+    private static final int BROADCAST_CHUNK = 50_000;
+
+    @Override
+    public long[] saveBroadcast(Message m, Long eventId) {
+        String insertMsg = """
+                INSERT INTO public."Messages"(from_user_id, message_text, send_at)
+                VALUES (?, ?, ?) RETURNING id_message
+                """;
+
+        String insertRcpt = """
+                WITH chunk AS (
+                    SELECT id_user FROM public."EventSubscribers"
+                    WHERE id_event = ? AND id_user > ? AND id_user <> ?
+                    ORDER BY id_user
+                    LIMIT ?
+                )
+                INSERT INTO public."MessageRecipients"(id_message, id_recipient, conv_low, conv_high, send_at)
+                SELECT ?, id_user, LEAST(?, id_user), GREATEST(?, id_user), ?
+                FROM chunk
+                RETURNING id_recipient
+                """;
+
+        long sender = m.getFrom().getId();
+        Timestamp sentAt = Timestamp.valueOf(m.getDate());
+
+        try (Connection con = Db.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                long newId;
+                try (PreparedStatement ps = con.prepareStatement(insertMsg)) {
+                    ps.setLong(1, sender);
+                    ps.setString(2, m.getText());
+                    ps.setTimestamp(3, sentAt);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next())
+                            throw new SQLException("Failed to insert message");
+                        newId = rs.getLong(1);
+                    }
+                }
+
+                long[] recipients = new long[0];
+                int count = 0;
+                try (PreparedStatement ps = con.prepareStatement(insertRcpt)) {
+                    long after = Long.MIN_VALUE;
+                    int inChunk;
+                    do {
+                        ps.setLong(1, eventId);
+                        ps.setLong(2, after);
+                        ps.setLong(3, sender);
+                        ps.setInt(4, BROADCAST_CHUNK);
+                        ps.setLong(5, newId);
+                        ps.setLong(6, sender);
+                        ps.setLong(7, sender);
+                        ps.setTimestamp(8, sentAt);
+
+                        inChunk = 0;
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) {
+                                long id = rs.getLong(1);
+                                if (count == recipients.length)
+                                    recipients = Arrays.copyOf(recipients, Math.max(16, count * 2));
+                                recipients[count++] = id;
+                                after = Math.max(after, id);
+                                ++inChunk;
+                            }
+                        }
+                    } while (inChunk == BROADCAST_CHUNK);
+                }
+
+                if (count == 0) {
+                    con.rollback();
+                    return new long[0];
+                }
+
+                con.commit();
+                m.setId(newId);
+                return Arrays.copyOf(recipients, count);
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("broadcast message", e.getMessage());
+        }
+    }
+
     @Override
     public Message findById(Long id) {
         String sql = """
                 SELECT m.*,
                     u."idUser", u.username, u.email, u.password,
                     p.name, p.firstName, p."birthDate", p.occupation,
-                    d.speed, d.resistance, d.duck_type
+                    d.speed, d.resistance, d.duck_type,
+                    reply.message_text AS reply_text,
+                    replyUser."idUser" AS reply_sender_id,
+                    replyUser.username AS reply_sender_name
                 FROM public."Messages" m
-                JOIN public."Users" u ON from_user_id = u."idUser"
+                JOIN public."Users" u ON m.from_user_id = u."idUser"
                 LEFT JOIN public."People" p ON u."idUser" = p."idPerson"
                 LEFT JOIN public."Ducks" d ON u."idUser" = d."idDuck"
+                LEFT JOIN public."Messages" reply ON m.reply_to = reply.id_message
+                LEFT JOIN public."Users" replyUser ON reply.from_user_id = replyUser."idUser"
                 WHERE m.id_message = ?
                 """;
 
@@ -175,34 +361,28 @@ public class PostgresMessageRepository implements MessageRepository {
     @Override
     public List<Message> findConversation(Long u1, Long u2) {
         String sql = """
-                SELECT DISTINCT m.*,
-                                u."idUser", u.username, u.email, u.password,
-                                p.name, p.firstName, p."birthDate", p.occupation,
-                                d.speed, d.resistance, d.duck_type,
-                                reply.message_text AS reply_text,
-                                replyUser."idUser" AS reply_sender_id,
-                                replyUser.username AS reply_sender_name
-                
-                FROM public."Messages" m
+                SELECT m.*,
+                       u."idUser", u.username, u.email, u.password,
+                       p.name, p.firstName, p."birthDate", p.occupation,
+                       d.speed, d.resistance, d.duck_type,
+                       reply.message_text AS reply_text,
+                       replyUser."idUser" AS reply_sender_id,
+                       replyUser.username AS reply_sender_name
+                FROM public."MessageRecipients" mr
+                JOIN public."Messages" m ON m.id_message = mr.id_message
                 JOIN public."Users" u ON m.from_user_id = u."idUser"
                 LEFT JOIN public."People" p ON u."idUser" = p."idPerson"
                 LEFT JOIN public."Ducks" d ON u."idUser" = d."idDuck"
-                JOIN public."MessageRecipients" mr ON m.id_message = mr.id_message
                 LEFT JOIN public."Messages" reply ON m.reply_to = reply.id_message
                 LEFT JOIN public."Users" replyUser ON reply.from_user_id = replyUser."idUser"
-                WHERE
-                    (m.from_user_id = ? AND mr.id_recipient = ?)
-                    OR
-                    (m.from_user_id = ? AND mr.id_recipient = ?)
-                ORDER BY m.send_at ASC
+                WHERE mr.conv_low = ? AND mr.conv_high = ?
+                ORDER BY mr.send_at ASC, mr.id_message ASC
                 """;
 
         List<Message> conversation = new ArrayList<>();
         try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setLong(1, u1);
-            ps.setLong(2, u2);
-            ps.setLong(3, u2);
-            ps.setLong(4, u1);
+            ps.setLong(1, Math.min(u1, u2));
+            ps.setLong(2, Math.max(u1, u2));
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next())
@@ -216,4 +396,56 @@ public class PostgresMessageRepository implements MessageRepository {
 
         return conversation;
     }
+
+    @Override
+    public MessagePage findConversation(Long u1, Long u2, MessageCursor cursor) {
+        // One range scan of idx_mr_conversation, newest first so LIMIT takes the latest page.
+        // A message has one sender, so a pair matches at most one recipient row per message.
+        String sql = """
+                SELECT m.id_message, m.message_text, m.send_at, m.reply_to,
+                       u."idUser", u.username, d.duck_type,
+                       reply.message_text AS reply_text,
+                       replyUser."idUser" AS reply_sender_id,
+                       replyUser.username AS reply_sender_name
+                FROM public."MessageRecipients" mr
+                JOIN public."Messages" m ON m.id_message = mr.id_message
+                JOIN public."Users" u ON m.from_user_id = u."idUser"
+                LEFT JOIN public."Ducks" d ON u."idUser" = d."idDuck"
+                LEFT JOIN public."Messages" reply ON m.reply_to = reply.id_message
+                LEFT JOIN public."Users" replyUser ON reply.from_user_id = replyUser."idUser"
+                WHERE mr.conv_low = ? AND mr.conv_high = ?
+                    %s
+                ORDER BY mr.send_at DESC, mr.id_message DESC
+                LIMIT ?
+                """.formatted(cursor.isLatest() ? "" : "AND (mr.send_at, mr.id_message) < (?, ?)");
+
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            int idx = 1;
+            ps.setLong(idx++, Math.min(u1, u2));
+            ps.setLong(idx++, Math.max(u1, u2));
+            if (!cursor.isLatest()) {
+                ps.setTimestamp(idx++, Timestamp.valueOf(cursor.getSentAt()));
+                ps.setLong(idx++, cursor.getMessageId());
+            }
+            // one extra row tells us if there is older history
+            ps.setInt(idx, cursor.getPageSize() + 1);
+
+            List<Message> page = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    page.add(mapRow(rs, PostgresUserRepository.mapSummary(rs).toUser()));
+            }
+
+            boolean hasOlder = page.size() > cursor.getPageSize();
+            if (hasOlder)
+                page.removeLast();
+
+            Collections.reverse(page);
+            loadRecipients(page, con);
+
+            return new MessagePage(page, hasOlder, cursor.getPageSize());
+        } catch (SQLException e) {
+            throw new DatabaseException("find conversation", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,272 @@
+package scs.repo.races;
+
+import scs.domain.event.BestTime;
+import scs.domain.event.EloRating;
+import scs.domain.event.LeaderboardEntry;
+import scs.domain.event.RaceEvent;
+import scs.utilities.database.Db;
+import scs.utilities.errors.DatabaseException;
+import scs.utilities.errors.ValidationException;
+
+import java.sql.*;
+import java.util.*;
+
+public class PostgresRaceResultRepository implements RaceResultRepository {
+    private static final String LEADERBOARD_SELECT = """
+            SELECT l.id_duck, u.username, l.races, l.wins, l.rating
+            FROM public."DuckLeaderboard" l
+            JOIN public."Users" u ON u."idUser" = l.id_duck
+            """;
+
+    private static LeaderboardEntry mapEntry(ResultSet rs) throws SQLException {
+        return new LeaderboardEntry(
+                rs.getLong("id_duck"),
+                rs.getString("username"),
+                rs.getInt("races"),
+                rs.getInt("wins"),
+                rs.getDouble("rating"));
+    }
+
+    @Override
+    public Long save(Long eventId, String raceName, RaceEvent.Result result) {
+        List<RaceEvent.LaneResult> lanes = result.lanes();
+        if (lanes.isEmpty())
+            throw new ValidationException("race", "A race without finished lanes can't be saved.");
+
+        String insertRace = """
+                INSERT INTO public."Races"(id_event, race_name, total_time)
+                VALUES (?, ?, ?)
+                RETURNING id_race
+                """;
+
+        String insertLane = """
+                INSERT INTO public."RaceLanes"(id_race, lane, id_duck, distance, velocity, finish_time)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+
+        try (Connection con = Db.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                long raceId;
+                try (PreparedStatement ps = con.prepareStatement(insertRace)) {
+                    if (eventId != null)
+                        ps.setLong(1, eventId);
+                    else
+                        ps.setNull(1, Types.BIGINT);
+                    ps.setString(2, raceName);
+                    ps.setDouble(3, result.totalTime());
+
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        raceId = rs.getLong(1);
+                    }
+                }
+
+                try (PreparedStatement ps = con.prepareStatement(insertLane)) {
+                    for (RaceEvent.LaneResult l : lanes) {
+                        ps.setLong(1, raceId);
+                        ps.setInt(2, l.lane());
+                        ps.setLong(3, l.duckId());
+                        ps.setDouble(4, l.distance());
+                        ps.setDouble(5, l.velocity());
+                        ps.setDouble(6, l.time());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+
+                updateLeaderboard(con, lanes);
+                updateBestTimes(con, raceId, lanes);
+
+                con.commit();
+                return raceId;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("save race", e.getMessage());
+        }
+    }
+
+    // Ratings are read under row locks, in id order, so concurrent races with shared ducks queue up
+    // instead of overwriting each other's update
+    private void updateLeaderboard(Connection con, List<RaceEvent.LaneResult> lanes) throws SQLException {
+        Long[] ids = lanes.stream().map(RaceEvent.LaneResult::duckId).distinct().sorted().toArray(Long[]::new);
+        Array idArray = con.createArrayOf("bigint", ids);
+
+        String ensure = """
+                INSERT INTO public."DuckLeaderboard"(id_duck)
+                SELECT unnest(?::bigint[])
+                ON CONFLICT DO NOTHING
+                """;
+        try (PreparedStatement ps = con.prepareStatement(ensure)) {
+            ps.setArray(1, idArray);
+            ps.executeUpdate();
+        }
+
+        Map<Long, Double> current = new HashMap<>();
+        String lock = """
+                SELECT id_duck, rating FROM public."DuckLeaderboard"
+                WHERE id_duck = ANY(?)
+                ORDER BY id_duck
+                FOR UPDATE
+                """;
+        try (PreparedStatement ps = con.prepareStatement(lock)) {
+            ps.setArray(1, idArray);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    current.put(rs.getLong("id_duck"), rs.getDouble("rating"));
+            }
+        }
+
+        int n = lanes.size();
+        double[] ratings = new double[n];
+        double[] times = new double[n];
+        int winner = 0;
+        for (int i = 0; i < n; ++i) {
+            RaceEvent.LaneResult l = lanes.get(i);
+            ratings[i] = current.getOrDefault(l.duckId(), EloRating.INITIAL);
+            times[i] = l.time();
+            if (times[i] < times[winner])
+                winner = i;
+        }
+        double[] updated = EloRating.update(ratings, times);
+
+        String update = """
+                UPDATE public."DuckLeaderboard"
+                SET races = races + 1, wins = wins + ?, rating = ?
+                WHERE id_duck = ?
+                """;
+        try (PreparedStatement ps = con.prepareStatement(update)) {
+            for (int i = 0; i < n; ++i) {
+                ps.setInt(1, i == winner ? 1 : 0);
+                ps.setDouble(2, updated[i]);
+                ps.setLong(3, lanes.get(i).duckId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void updateBestTimes(Connection con, long raceId, List<RaceEvent.LaneResult> lanes) throws SQLException {
+        String upsert = """
+                INSERT INTO public."DuckBestTimes"(id_duck, distance, best_time, id_race)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (id_duck, distance) DO UPDATE
+                SET best_time = EXCLUDED.best_time, id_race = EXCLUDED.id_race
+                WHERE EXCLUDED.best_time < "DuckBestTimes".best_time
+                """;
+        try (PreparedStatement ps = con.prepareStatement(upsert)) {
+            for (RaceEvent.LaneResult l : lanes) {
+                ps.setLong(1, l.duckId());
+                ps.setDouble(2, l.distance());
+                ps.setDouble(3, l.time());
+                ps.setLong(4, raceId);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    @Override
+    public List<RaceEvent.LaneResult> findLanes(Long raceId) {
+        String sql = """
+                SELECT id_duck, lane, distance, velocity, finish_time
+                FROM public."RaceLanes"
+                WHERE id_race = ?
+                ORDER BY lane
+                """;
+
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, raceId);
+
+            List<RaceEvent.LaneResult> lanes = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    lanes.add(new RaceEvent.LaneResult(
+                            rs.getLong("id_duck"),
+                            rs.getInt("lane"),
+                            rs.getDouble("distance"),
+                            rs.getDouble("velocity"),
+                            rs.getDouble("finish_time")));
+            }
+            return lanes;
+        } catch (SQLException e) {
+            throw new DatabaseException("find race lanes", e.getMessage());
+        }
+    }
+
+    // ORDER BY matches idx_leaderboard_rating / idx_leaderboard_wins, so only k rows are read
+    @Override
+    public List<LeaderboardEntry> topRated(int k) {
+        return top(LEADERBOARD_SELECT + " ORDER BY l.rating DESC NULLS LAST, l.id_duck LIMIT ?", k, "top rated ducks");
+    }
+
+    @Override
+    public List<LeaderboardEntry> mostWins(int k) {
+        return top(LEADERBOARD_SELECT + " ORDER BY l.wins DESC NULLS LAST, l.id_duck LIMIT ?", k, "most winning ducks");
+    }
+
+    private List<LeaderboardEntry> top(String sql, int k, String what) {
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, k);
+
+            List<LeaderboardEntry> list = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    list.add(mapEntry(rs));
+            }
+            return list;
+        } catch (SQLException e) {
+            throw new DatabaseException(what, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<BestTime> fastest(double distance, int k) {
+        String sql = """
+                SELECT b.id_duck, u.username, b.distance, b.best_time, b.id_race
+                FROM public."DuckBestTimes" b
+                JOIN public."Users" u ON u."idUser" = b.id_duck
+                WHERE b.distance = ?
+                ORDER BY b.best_time, b.id_duck
+                LIMIT ?
+                """;
+
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setDouble(1, distance);
+            ps.setInt(2, k);
+
+            List<BestTime> list = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Long raceId = rs.getLong("id_race");
+                    if (rs.wasNull())
+                        raceId = null;
+                    list.add(new BestTime(rs.getLong("id_duck"), rs.getString("username"),
+                            rs.getDouble("distance"), rs.getDouble("best_time"), raceId));
+                }
+            }
+            return list;
+        } catch (SQLException e) {
+            throw new DatabaseException("fastest ducks", e.getMessage());
+        }
+    }
+
+    @Override
+    public LeaderboardEntry findStanding(Long duckId) {
+        try (Connection con = Db.getConnection();
+             PreparedStatement ps = con.prepareStatement(LEADERBOARD_SELECT + " WHERE l.id_duck = ?")) {
+            ps.setLong(1, duckId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapEntry(rs) : null;
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("find duck standing", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package scs.repo.races;
+
+import scs.domain.event.BestTime;
+import scs.domain.event.LeaderboardEntry;
+import scs.domain.event.RaceEvent;
+
+import java.util.List;
+
+public interface RaceResultRepository {
+    // Stores the race and updates the leaderboard in one transaction, returns the race id
+    Long save(Long eventId, String raceName, RaceEvent.Result result);
+
+    List<RaceEvent.LaneResult> findLanes(Long raceId);
+
+    // Top k, read from the leaderboard tables' indexes
+    List<LeaderboardEntry> topRated(int k);
+    List<LeaderboardEntry> mostWins(int k);
+    List<BestTime> fastest(double distance, int k);
+
+    LeaderboardEntry findStanding(Long duckId);
+}
@@ -0,0 +1,230 @@
+package scs.repo.users;
+
+import scs.domain.user.User;
+import scs.domain.user.UserSummary;
+import scs.utilities.events.ChangeEventType;
+import scs.utilities.events.EntityChangeEvent;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
+import scs.utilities.paging.Page;
+import scs.utilities.paging.Pageable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of users by id in front of another repository.
+ * Lookups by id (single and bulk) are served from memory when possible, everything else goes to the delegate.
+ * A user read from the delegate is only cached if nothing was invalidated while it loaded, otherwise
+ * a write landing between the read and the put would leave the old user cached indefinitely.
+ */
+public class CachedUserRepository implements UserRepository {
+    public record Stats(long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private final UserRepository delegate;
+    private final int capacity;
+    private final LinkedHashMap<Long, User> cache;
+    // bumped by every invalidation, guarded by this
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachedUserRepository(UserRepository delegate, int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+
+        this.delegate = delegate;
+        this.capacity = capacity;
+        // access order, so the eldest entry is the least recently used one
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, User> eldest) {
+                if (size() > CachedUserRepository.this.capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private synchronized User get(Long id) {
+        return cache.get(id);
+    }
+
+    // Read before going to the delegate, see put
+    private synchronized long generation() {
+        return generation;
+    }
+
+    // Skipped if anything was invalidated since seenGeneration, the loaded user may be stale
+    private synchronized void put(User user, long seenGeneration) {
+        if (user != null && user.getId() != null && seenGeneration == generation)
+            cache.put(user.getId(), user);
+    }
+
+    public synchronized void invalidate(Long id) {
+        ++generation;
+        cache.remove(id);
+    }
+
+    public synchronized void invalidateAll() {
+        ++generation;
+        cache.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), cache.size());
+    }
+
+    // Hooked to UserService, a changed or removed user is reloaded on next read
+    public void onUserChanged(EntityChangeEvent<User> event) {
+        if (event.type() == ChangeEventType.UPDATE || event.type() == ChangeEventType.DELETE)
+            invalidate(event.data().getId());
+    }
+
+    @Override
+    public void add(User user) {
+        delegate.add(user);
+    }
+
+    @Override
+    public User findById(Long id) {
+        User user = get(id);
+        if (user != null) {
+            hits.incrementAndGet();
+            return user;
+        }
+
+        misses.incrementAndGet();
+        long seen = generation();
+        user = delegate.findById(id);
+        put(user, seen);
+        return user;
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        long seen = generation();
+        User user = delegate.findByUsername(username);
+        put(user, seen);
+        return user;
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        long seen = generation();
+        User user = delegate.findByEmail(email);
+        put(user, seen);
+        return user;
+    }
+
+    @Override
+    public List<User> getAll() {
+        return delegate.getAll();
+    }
+
+    // Only the ids missing from the cache are fetched, in one query
+    @Override
+    public List<User> findUsersByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty())
+            return new ArrayList<>();
+
+        List<User> list = new ArrayList<>(ids.size());
+        Set<Long> missing = new LinkedHashSet<>();
+        long seen;
+        synchronized (this) {
+            seen = generation;
+            for (Long id : new LinkedHashSet<>(ids)) {
+                User user = cache.get(id);
+                if (user != null)
+                    list.add(user);
+                else
+                    missing.add(id);
+            }
+        }
+        hits.addAndGet(list.size());
+        misses.addAndGet(missing.size());
+
+        if (!missing.isEmpty()) {
+            List<User> loaded = delegate.findUsersByIds(missing);
+            synchronized (this) {
+                for (User user : loaded)
+                    put(user, seen);
+            }
+            list.addAll(loaded);
+        }
+        return list;
+    }
+
+    // Cached users are summarised in place, the rest come from the narrow query
+    @Override
+    public List<UserSummary> findSummariesByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty())
+            return new ArrayList<>();
+
+        List<UserSummary> list = new ArrayList<>(ids.size());
+        Set<Long> missing = new LinkedHashSet<>();
+        synchronized (this) {
+            for (Long id : new LinkedHashSet<>(ids)) {
+                User user = cache.get(id);
+                if (user != null)
+                    list.add(UserSummary.of(user));
+                else
+                    missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty())
+            list.addAll(delegate.findSummariesByIds(missing));
+        return list;
+    }
+
+    @Override
+    public Page<User> search(Pageable pageable, String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds) {
+        return delegate.search(pageable, typeFilter, duckType, includeIds, excludeIds);
+    }
+
+    @Override
+    public CursorPage<User> search(Cursor cursor, String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds) {
+        return delegate.search(cursor, typeFilter, duckType, includeIds, excludeIds);
+    }
+
+    @Override
+    public int count(String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds) {
+        return delegate.count(typeFilter, duckType, includeIds, excludeIds);
+    }
+
+    @Override
+    public void update(User user) {
+        try {
+            delegate.update(user);
+        } finally {
+            // the caller may have already changed the cached instance
+            invalidate(user.getId());
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        try {
+            delegate.deleteById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        if (get(id) != null)
+            return true;
+        return delegate.existsById(id);
+    }
+}
@@ -0,0 +1,13 @@
+package scs.repo.users;
+
+/**
+ * How the repository computes totals for paged user searches
+ * EXACT     - COUNT(*) on every call
+ * CACHED    - COUNT(*) once per filter signature, dropped when users are added/deleted
+ * ESTIMATED - planner estimate (pg_class.reltuples or EXPLAIN), never scans the tables
+ */
+public enum CountStrategy {
+    EXACT,
+    CACHED,
+    ESTIMATED
+}
@@ -5,18 +5,44 @@ import scs.utilities.database.Db;
 import scs.utilities.errors.DuplicateException;
 import scs.utilities.errors.NotFoundException;
 import scs.utilities.errors.DatabaseException;
+import scs.utilities.events.ChangeEventType;
+import scs.utilities.events.EntityChangeEvent;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
 import scs.utilities.paging.Page;
 import scs.utilities.paging.Pageable;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class PostgresUserRepository implements UserRepository {
+    private static final int COUNT_CACHE_LIMIT = 256;
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*([0-9.]+)");
+
+    private final CountStrategy countStrategy;
+    // each total remembers the generation it was counted in, older ones are ignored on read
+    private record CountEntry(long total, long generation) {
+    }
+
+    private final Map<String, CountEntry> countCache = new ConcurrentHashMap<>();
+    private final AtomicLong countGeneration = new AtomicLong();
+
     public PostgresUserRepository() {
+        this(CountStrategy.EXACT);
+    }
+
+    public PostgresUserRepository(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
     }
 
     private static final String BASE_SELECT = """
@@ -29,6 +55,21 @@ public class PostgresUserRepository implements UserRepository {
             LEFT JOIN public."Ducks" d ON d."idDuck" = u."idUser"
             """;
 
+    private static final String BASE_FROM = """
+            FROM public."Users" u
+            LEFT JOIN public."People" p ON p."idPerson" = u."idUser"
+            LEFT JOIN public."Ducks" d ON d."idDuck" = u."idUser"
+            """;
+
+    private static final String BASE_COUNT = "SELECT COUNT(*) " + BASE_FROM;
+
+    // Only what a list row shows, the Ducks join gives the type
+    private static final String SUMMARY_SELECT = """
+            SELECT u."idUser", u.username, d.duck_type
+            FROM public."Users" u
+            LEFT JOIN public."Ducks" d ON d."idDuck" = u."idUser"
+            """;
+
     // ---------- mapping ----------
     public static User mapRow(ResultSet rs) throws SQLException {
         Long id = rs.getLong("idUser");
@@ -78,6 +119,30 @@ public class PostgresUserRepository implements UserRepository {
         throw new DatabaseException("mapping", "User " + id + " is neither Person nor Duck");
     }
 
+    // Needs "idUser", username and duck_type
+    public static UserSummary mapSummary(ResultSet rs) throws SQLException {
+        String duckType = rs.getString("duck_type");
+        return new UserSummary(rs.getLong("idUser"), rs.getString("username"),
+                duckType == null ? "PERSON" : "DUCK", duckType);
+    }
+
+    // Duck without credentials, needs "idUser", username, email, speed, resistance and duck_type
+    public static Duck mapDuck(ResultSet rs) throws SQLException {
+        Long id = rs.getLong("idUser");
+        String username = rs.getString("username");
+        String email = rs.getString("email");
+        double speed = rs.getDouble("speed");
+        double resistance = rs.getDouble("resistance");
+        String duckType = rs.getString("duck_type");
+
+        return switch (duckType) {
+            case "SWIMMING" -> new SwimmingDuck(id, username, email, null, speed, resistance);
+            case "FLYING" -> new FlyingDuck(id, username, email, null, speed, resistance);
+            case "HYBRID" -> new HybridDuck(id, username, email, null, speed, resistance);
+            default -> throw new DatabaseException("mapping", "Unknown duck type: " + duckType);
+        };
+    }
+
     // ---------- insert/update helpers ----------
     private void insertUser(Connection con, User u) throws SQLException {
         try (PreparedStatement ps = con.prepareStatement("""
@@ -247,17 +312,30 @@ public class PostgresUserRepository implements UserRepository {
     }
 
     @Override
-    public Page<User> search(Pageable pageable, String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds) {
-        StringBuilder sql = new StringBuilder(BASE_SELECT);
-        StringBuilder countSql = new StringBuilder("""
-                SELECT COUNT(*) FROM public."Users" u
-                LEFT JOIN public."People" p ON p."idPerson" = u."idUser"
-                LEFT JOIN public."Ducks" d ON d."idDuck" = u."idUser"
-                """);
+    public List<UserSummary> findSummariesByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty())
+            return new ArrayList<>();
 
-        List<String> conditions = new ArrayList<>();
-        List<Object> params = new ArrayList<>();
+        String sql = SUMMARY_SELECT + " WHERE u.\"idUser\" = ANY(?)";
+
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+
+            List<UserSummary> list = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    list.add(mapSummary(rs));
+            }
+            return list;
+        } catch (SQLException e) {
+            throw new DatabaseException("find summaries", e.getMessage());
+        }
+    }
 
+    // ---------- search helpers ----------
+    // Fills the WHERE conditions shared by search, count and keyset search
+    private static void appendFilters(List<String> conditions, List<Object> params, String typeFilter, String duckType,
+                                      List<Long> includeIds, List<Long> excludeIds) {
         // Type filter
         if (typeFilter.equals("PERSON")) {
             conditions.add("p.\"idPerson\" IS NOT NULL");
@@ -282,42 +360,123 @@ public class PostgresUserRepository implements UserRepository {
             conditions.add("NOT (u.\"idUser\" = ANY (?))");
             params.add(excludeIds.toArray(new Long[0]));
         }
+    }
+
+    private static String where(List<String> conditions) {
+        if (conditions.isEmpty())
+            return "";
+        return "WHERE " + String.join(" AND ", conditions);
+    }
+
+    // returns the next free parameter index
+    private static int bindParams(Connection con, PreparedStatement ps, List<Object> params) throws SQLException {
+        int idx = 1;
+        for (Object p : params)
+            if (p instanceof Long[])
+                ps.setArray(idx++, con.createArrayOf("bigint", (Long[]) p));
+            else
+                ps.setObject(idx++, p);
+        return idx;
+    }
 
-        // Assemble
-        if (!conditions.isEmpty()) {
-            String where = "WHERE " + String.join(" AND ", conditions);
-            sql.append(where);
-            countSql.append(where);
+    private long count(Connection con, List<String> conditions, List<Object> params) throws SQLException {
+        return switch (countStrategy) {
+            case EXACT -> exactCount(con, conditions, params);
+            case CACHED -> cachedCount(con, conditions, params);
+            case ESTIMATED -> estimatedCount(con, conditions, params);
+        };
+    }
+
+    private static long exactCount(Connection con, List<String> conditions, List<Object> params) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(BASE_COUNT + where(conditions))) {
+            bindParams(con, ps, params);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next())
+                    return rs.getLong(1);
+                return 0;
+            }
         }
+    }
 
-        sql.append(" ORDER BY u.\"idUser\" ASC");
+    private static String signature(List<String> conditions, List<Object> params) {
+        StringBuilder key = new StringBuilder(where(conditions));
+        for (Object p : params)
+            key.append('|').append(p instanceof Long[] arr ? Arrays.toString(arr) : String.valueOf(p));
+        return key.toString();
+    }
 
-        try (Connection con = Db.getConnection()) {
-            long total = 0;
-            try (PreparedStatement psCount = con.prepareStatement(countSql.toString())) {
-                int idx = 1;
-                for (Object p : params)
-                    if (p instanceof Long[])
-                        psCount.setArray(idx++, con.createArrayOf("bigint", (Long[]) p));
-                    else
-                        psCount.setObject(idx++, p);
-
-                try (ResultSet rs = psCount.executeQuery()) {
-                    if (rs.next())
-                        total = rs.getLong(1);
+    private long cachedCount(Connection con, List<String> conditions, List<Object> params) throws SQLException {
+        String key = signature(conditions, params);
+
+        long generation = countGeneration.get();
+        CountEntry cached = countCache.get(key);
+        if (cached != null && cached.generation() == generation)
+            return cached.total();
+
+        long total = exactCount(con, conditions, params);
+
+        // Tagged with the generation read before counting: if users were added/deleted meanwhile,
+        // the entry is already stale and the next read recounts, even if it lands after invalidateCounts
+        if (countCache.size() >= COUNT_CACHE_LIMIT)
+            countCache.clear();
+        countCache.put(key, new CountEntry(total, generation));
+
+        return total;
+    }
+
+    private static long estimatedCount(Connection con, List<String> conditions, List<Object> params) throws SQLException {
+        // No filters -> table statistics are enough
+        if (conditions.isEmpty()) {
+            String sql = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'public.\"Users\"'::regclass";
+            try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+                // -1 means the table was never analyzed
+                if (rs.next() && rs.getLong(1) >= 0)
+                    return rs.getLong(1);
+            }
+            return exactCount(con, conditions, params);
+        }
+
+        // Filters -> ask the planner how many rows it expects
+        try (PreparedStatement ps = con.prepareStatement("EXPLAIN (FORMAT JSON) SELECT 1 " + BASE_FROM + where(conditions))) {
+            bindParams(con, ps, params);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Matcher m = PLAN_ROWS.matcher(rs.getString(1));
+                    if (m.find())
+                        return (long) Double.parseDouble(m.group(1));
                 }
             }
+        }
+        return exactCount(con, conditions, params);
+    }
 
-            List<User> users = new ArrayList<>();
-            sql.append(" LIMIT ? OFFSET ?");
+    public void invalidateCounts() {
+        countGeneration.incrementAndGet();
+        countCache.clear();
+    }
+
+    // Hooked to UserService, added/deleted users change every cached total
+    public void onUserChanged(EntityChangeEvent<User> event) {
+        if (event.type() == ChangeEventType.ADD || event.type() == ChangeEventType.DELETE)
+            invalidateCounts();
+    }
 
-            try (PreparedStatement ps = con.prepareStatement(sql.toString())) {
-                int idx = 1;
-                for (Object p : params)
-                    if (p instanceof Long[])
-                        ps.setArray(idx++, con.createArrayOf("bigint", (Long[]) p));
-                    else
-                        ps.setObject(idx++, p);
+    @Override
+    public Page<User> search(Pageable pageable, String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        appendFilters(conditions, params, typeFilter, duckType, includeIds, excludeIds);
+
+        String sql = BASE_SELECT + where(conditions) + " ORDER BY u.\"idUser\" ASC LIMIT ? OFFSET ?";
+
+        try (Connection con = Db.getConnection()) {
+            long total = count(con, conditions, params);
+
+            List<User> users = new ArrayList<>();
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                int idx = bindParams(con, ps, params);
 
                 ps.setInt(idx++, pageable.getPageSize());
                 ps.setInt(idx++, pageable.getOffset());
@@ -334,6 +493,67 @@ public class PostgresUserRepository implements UserRepository {
         }
     }
 
+    @Override
+    public int count(String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        appendFilters(conditions, params, typeFilter, duckType, includeIds, excludeIds);
+
+        try (Connection con = Db.getConnection()) {
+            return (int) count(con, conditions, params);
+        } catch (SQLException e) {
+            throw new DatabaseException("count users", e.getMessage());
+        }
+    }
+
+    @Override
+    public CursorPage<User> search(Cursor cursor, String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        appendFilters(conditions, params, typeFilter, duckType, includeIds, excludeIds);
+
+        boolean backwards = cursor.getDirection() == Cursor.Direction.PREVIOUS;
+
+        // Seek from the last seen id, served straight from the primary key index
+        if (!cursor.isFirst()) {
+            conditions.add(backwards ? "u.\"idUser\" < ?" : "u.\"idUser\" > ?");
+            params.add(cursor.getKey());
+        }
+
+        // One extra row tells us if there is anything beyond this page
+        String sql = BASE_SELECT + where(conditions)
+                     + " ORDER BY u.\"idUser\" " + (backwards ? "DESC" : "ASC") + " LIMIT ?";
+
+        try (Connection con = Db.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            int idx = bindParams(con, ps, params);
+            ps.setInt(idx, cursor.getPageSize() + 1);
+
+            List<User> users = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next())
+                    users.add(mapRow(rs));
+            }
+
+            boolean more = users.size() > cursor.getPageSize();
+            if (more)
+                users.removeLast();
+
+            if (backwards)
+                Collections.reverse(users);
+
+            if (users.isEmpty())
+                return CursorPage.empty(cursor.getPageSize());
+
+            boolean hasNext = backwards || more;
+            boolean hasPrevious = backwards ? more : !cursor.isFirst();
+
+            return new CursorPage<>(users, users.getFirst().getId(), users.getLast().getId(),
+                    hasNext, hasPrevious, cursor.getPageSize());
+        } catch (SQLException e) {
+            throw new DatabaseException("search users", e.getMessage());
+        }
+    }
+
     @Override
     public boolean existsById(Long id) {
         String sql = "SELECT 1 FROM public.\"Users\" WHERE \"idUser\" = ?";
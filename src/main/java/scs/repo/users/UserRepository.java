@@ -1,6 +1,9 @@
 package scs.repo.users;
 
 import scs.domain.user.User;
+import scs.domain.user.UserSummary;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
 import scs.utilities.paging.Page;
 import scs.utilities.paging.Pageable;
 
@@ -21,8 +24,14 @@ public interface UserRepository {
 
     List<User> findUsersByIds(Collection<Long> ids);
 
+    List<UserSummary> findSummariesByIds(Collection<Long> ids);
+
     Page<User> search(Pageable pageable, String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds);
 
+    CursorPage<User> search(Cursor cursor, String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds);
+
+    int count(String typeFilter, String duckType, List<Long> includeIds, List<Long> excludeIds);
+
 
     void update(User user);            // update
 
@@ -8,6 +8,7 @@ import scs.repo.events.EventRepository;
 import scs.repo.users.UserRepository;
 import scs.service.social.MessageService;
 import scs.service.social.UserService;
+import scs.utilities.database.ChangeChannel;
 import scs.utilities.errors.NotFoundException;
 import scs.utilities.events.ChangeEventType;
 import scs.utilities.events.EntityChangeEvent;
@@ -16,7 +17,7 @@ import scs.utilities.paging.Pageable;
 import scs.utilities.validator.NotBlankValidator;
 import scs.utilities.validator.Validators;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -31,6 +32,37 @@ public class EventService extends Observable<EntityChangeEvent<Event>> {
         this.messages = messages;
     }
 
+    private ChangeChannel channel;
+
+    // Shares our changes with other running instances and replays theirs to local observers
+    public void connect(ChangeChannel channel) {
+        this.channel = channel;
+        channel.subscribe(this::onRemoteChange);
+    }
+
+    private void share(ChangeEventType type, Object... keys) {
+        if (channel != null)
+            channel.publish(type, keys);
+    }
+
+    private void onRemoteChange(ChangeEventType type, String[] keys) {
+        Long id = Long.parseLong(keys[0]);
+        if (type == ChangeEventType.DELETE) {
+            notifyObservers(new EntityChangeEvent<>(type, new Event(id, "Deleted Event")));
+            return;
+        }
+
+        Event e = repo.findById(id);
+        if (e != null)
+            notifyObservers(new EntityChangeEvent<>(type, e));
+    }
+
+    // Topic is the event's id
+    @Override
+    protected Collection<?> topicsOf(EntityChangeEvent<Event> event) {
+        return List.of(event.data().getId());
+    }
+
     public Event createEvent(String name) {
         new NotBlankValidator("event name").validate(name);
         Validators.maxLength("event name", 50).validate(name);
@@ -39,6 +71,7 @@ public class EventService extends Observable<EntityChangeEvent<Event>> {
         repo.add(e);
 
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.ADD,e ));
+        share(ChangeEventType.ADD, e.getId());
 
         return e;
     }
@@ -52,6 +85,7 @@ public class EventService extends Observable<EntityChangeEvent<Event>> {
         repo.update(e);
 
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.UPDATE,e ));
+        share(ChangeEventType.UPDATE, id);
     }
 
     public void deleteEvent(Long id) {
@@ -59,6 +93,7 @@ public class EventService extends Observable<EntityChangeEvent<Event>> {
         repo.delete(id);
 
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.DELETE, e));
+        share(ChangeEventType.DELETE, id);
     }
 
     public Event findById(Long id) {
@@ -78,6 +113,7 @@ public class EventService extends Observable<EntityChangeEvent<Event>> {
 
         Event updated = repo.findById(eventId);
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.UPDATE, updated));
+        share(ChangeEventType.UPDATE, eventId);
     }
 
     public void unsubscribe(Long eventId, Long userId) {
@@ -88,11 +124,18 @@ public class EventService extends Observable<EntityChangeEvent<Event>> {
         if (updated.getSubscribers().isEmpty()) {
             deleteEvent(updated.getId());
 
-        } else
+        } else {
             notifyObservers(new EntityChangeEvent<>(ChangeEventType.UPDATE, updated));
+            share(ChangeEventType.UPDATE, eventId);
+        }
     }
 
     public RaceEvent.Result runRaceInMemory(String raceName, List<Long> candidateIds, double[] lanes) {
+        return runRaceInMemory(raceName, candidateIds, lanes, RaceEvent.Strategy.HEURISTIC);
+    }
+
+    public RaceEvent.Result runRaceInMemory(String raceName, List<Long> candidateIds, double[] lanes,
+                                            RaceEvent.Strategy strategy) {
         List<User> fetched = users.search(
                 new Pageable(0, candidateIds.size()),
                 "DUCK", "ALL",
@@ -106,18 +149,14 @@ public class EventService extends Observable<EntityChangeEvent<Event>> {
 
         RaceEvent race = new RaceEvent(null, raceName, candidates, lanes, lanes.length);
 
-        return race.runRace();
+        return race.runRace(strategy);
     }
 
+    // Recipients are copied from EventSubscribers inside the database, nothing is sent if there are none
     public void notifySubscribers(Long eventId, String messageText) {
-        Event event = repo.findById(eventId);
-        if (event == null)
+        if (!repo.existsById(eventId))
             throw new NotFoundException("event", "Event " + eventId + " not found.");
 
-        List<Long> subscriberIds = new ArrayList<>(event.getSubscribers());
-        if (subscriberIds.isEmpty())
-            return;
-
-        messages.sendMessage(UserService.RACE_BOT_ID, subscriberIds, messageText, null);
+        messages.broadcastToEventSubscribers(UserService.RACE_BOT_ID, eventId, messageText);
     }
 }
@@ -1,24 +1,55 @@
 package scs.service;
 
+import scs.domain.event.RaceEvent;
+import scs.domain.event.Tournament;
 import scs.domain.group.Herd;
+import scs.domain.group.HerdSummary;
+import scs.domain.group.MembershipChange;
 import scs.domain.group.Performance;
 import scs.domain.user.Duck;
 import scs.repo.herds.HerdRepository;
 import scs.utilities.events.ChangeEventType;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observable;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
 import scs.utilities.validator.NotBlankValidator;
 import scs.utilities.validator.Validators;
 
+import java.util.Collection;
 import java.util.List;
 
 public class HerdService extends Observable<EntityChangeEvent<Herd<Duck>>> {
     private final HerdRepository<Duck> repo;
 
+    private final MembershipEvents memberships = new MembershipEvents();
+
     public HerdService(HerdRepository<Duck> repo) {
         this.repo = repo;
     }
 
+    // Ducks joining and leaving, topic is the herd's id
+    public static class MembershipEvents extends Observable<MembershipChange> {
+        @Override
+        protected Collection<?> topicsOf(MembershipChange change) {
+            return List.of(change.herdId());
+        }
+
+        private void publish(MembershipChange change) {
+            notifyObservers(change);
+        }
+    }
+
+    public MembershipEvents memberships() {
+        return memberships;
+    }
+
+    // Topic is the herd's id
+    @Override
+    protected Collection<?> topicsOf(EntityChangeEvent<Herd<Duck>> event) {
+        return List.of(event.data().getId());
+    }
+
     public Herd<Duck> createHerd(String name) {
         new NotBlankValidator("name").validate(name);
         Validators.maxLength("name", 30).validate(name);
@@ -46,26 +77,46 @@ public class HerdService extends Observable<EntityChangeEvent<Herd<Duck>>> {
     }
 
     public void addDuck(Long herdId, Duck duck) {
-        repo.addDuck(herdId, duck.getId());
-
-        Herd<Duck> updated = repo.findById(herdId);
-        notifyObservers(new EntityChangeEvent<>(ChangeEventType.UPDATE, updated));
+        HerdSummary aggregate = repo.addDuck(herdId, duck.getId());
+        if (aggregate != null)
+            memberships.publish(MembershipChange.added(duck, aggregate));
     }
 
+    // The last duck to leave takes the herd with it
     public void deleteDuck(Long herdId, Long duckId) {
-        repo.removeDuck(herdId, duckId);
+        HerdSummary aggregate = repo.removeDuck(herdId, duckId);
+        if (aggregate == null)
+            return;
 
-        Herd<Duck> updated = repo.findById(herdId);
-
-        if (updated.getMembers().isEmpty())
+        if (aggregate.memberCount() == 0)
             deleteHerd(herdId);
         else
-            notifyObservers(new EntityChangeEvent<>(ChangeEventType.UPDATE, updated));
+            memberships.publish(MembershipChange.removed(duckId, aggregate));
     }
 
+    // From the aggregates on the herd row, members are not loaded
     public Performance performance(Long herdId) {
-        Herd<Duck> h = findById(herdId);
-        return h.getAvgPerformance();
+        return repo.findSummary(herdId).performance();
+    }
+
+    public List<HerdSummary> summaries() {
+        return repo.getAllSummaries();
+    }
+
+    // Listing without members, open a herd with findById to get them
+    public CursorPage<HerdSummary> summaries(Cursor cursor) {
+        return repo.findSummaries(cursor);
+    }
+
+    // Members are loaded once, the races themselves never touch the database
+    public Tournament.Report runTournament(List<Long> herdIds, double[] lanes, Tournament.Settings settings) {
+        List<Tournament.Entry> entries = herdIds.stream()
+                .map(repo::findById)
+                .map(h -> new Tournament.Entry(h.getId(), h.getName(),
+                        h.getMembers().stream().filter(RaceEvent::canSwim).toList()))
+                .toList();
+
+        return new Tournament(entries, lanes, settings).run();
     }
 
     public List<Duck> members(Long herdId) {
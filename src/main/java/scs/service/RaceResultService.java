@@ -0,0 +1,50 @@
+package scs.service;
+
+import scs.domain.event.BestTime;
+import scs.domain.event.LeaderboardEntry;
+import scs.domain.event.RaceEvent;
+import scs.repo.races.RaceResultRepository;
+import scs.utilities.errors.ValidationException;
+
+import java.util.List;
+
+public class RaceResultService {
+    private static final int MAX_TOP = 100;
+
+    private final RaceResultRepository repo;
+
+    public RaceResultService(RaceResultRepository repo) {
+        this.repo = repo;
+    }
+
+    // eventId may be null for races that don't belong to an event
+    public Long record(Long eventId, String raceName, RaceEvent.Result result) {
+        return repo.save(eventId, raceName, result);
+    }
+
+    public List<RaceEvent.LaneResult> lanes(Long raceId) {
+        return repo.findLanes(raceId);
+    }
+
+    public List<LeaderboardEntry> topRated(int k) {
+        return repo.topRated(checkTop(k));
+    }
+
+    public List<LeaderboardEntry> mostWins(int k) {
+        return repo.mostWins(checkTop(k));
+    }
+
+    public List<BestTime> fastest(double distance, int k) {
+        return repo.fastest(distance, checkTop(k));
+    }
+
+    public LeaderboardEntry standing(Long duckId) {
+        return repo.findStanding(duckId);
+    }
+
+    private static int checkTop(int k) {
+        if (k <= 0 || k > MAX_TOP)
+            throw new ValidationException("leaderboard", "Top must be between 1 and " + MAX_TOP + ".");
+        return k;
+    }
+}
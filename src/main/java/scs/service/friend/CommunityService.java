@@ -1,24 +1,67 @@
 package scs.service.friend;
 
+import scs.domain.interactions.Friendship;
 import scs.domain.user.User;
+import scs.repo.friend.friendships.FriendGraph;
 import scs.repo.friend.friendships.FriendshipRepository;
 import scs.repo.users.UserRepository;
 import scs.utilities.errors.NotFoundException;
+import scs.utilities.events.ChangeEventType;
+import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.paging.Page;
 import scs.utilities.paging.Pageable;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class CommunityService {
+    private static final int BOUNDED_BFS_BUDGET = 64;
+
     private final UserRepository users;
     private final FriendshipRepository graph;
+    private volatile CommunityTracker tracker;
 
     public CommunityService(UserRepository users, FriendshipRepository graph) {
         this.users = users;
         this.graph = graph;
     }
 
+    // Built from a stream of all edges on first use, then kept current by the observer hooks below
+    private CommunityTracker tracker() {
+        CommunityTracker t = tracker;
+        if (t == null) {
+            synchronized (this) {
+                t = tracker;
+                if (t == null) {
+                    t = new CommunityTracker(FriendGraph.load(graph::forEachEdge));
+                    tracker = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    // Hooked to FriendshipService
+    public void onFriendshipChanged(EntityChangeEvent<Friendship> event) {
+        CommunityTracker t = tracker;
+        if (t == null)
+            return;     // not built yet, it will read the change from the database
+
+        Friendship f = event.data();
+        if (event.type() == ChangeEventType.ADD)
+            t.addFriendship(f.user1(), f.user2());
+        else if (event.type() == ChangeEventType.DELETE)
+            t.removeFriendship(f.user1(), f.user2());
+    }
+
+    // Hooked to UserService, deleted users lose all their friendships
+    public void onUserChanged(EntityChangeEvent<User> event) {
+        CommunityTracker t = tracker;
+        if (t != null && event.type() == ChangeEventType.DELETE)
+            t.removeUser(event.data().getId());
+    }
+
     // DTO
     public record CommunitySummary(Set<User> members, int diameter) {
     }
@@ -42,46 +85,6 @@ public class CommunityService {
     }
 
 
-    // BFS shortest distances inside 'allowed' subgraph
-    private int bfsMaxDist(Long start, Set<Long> allowed, Map<Long, Set<Long>> adj) {
-        Map<Long, Integer> dist = new HashMap<>();
-        Queue<Long> q = new ArrayDeque<>();
-
-        dist.put(start, 0);
-        q.add(start);
-        int localMax = 0;
-
-        while (!q.isEmpty()) {
-            Long u = q.poll();
-            int du = dist.get(u);
-
-            for (Long v : adj.getOrDefault(u, Set.of())) {
-                if (allowed.contains(v) && !dist.containsKey(v)) {
-                    dist.put(v, du + 1);
-                    q.add(v);
-
-                    if (du > localMax)
-                        localMax = du;
-                }
-            }
-        }
-
-        return localMax;
-    }
-
-    private Map<Long, Set<Long>> buildAdjacencyList(List<Long[]> edges) {
-        Map<Long, Set<Long>> adj = new HashMap<>();
-
-        for (Long[] edge : edges) {
-            Long u = edge[0];
-            Long v = edge[1];
-            adj.computeIfAbsent(u, k -> new HashSet<>()).add(v);
-            adj.computeIfAbsent(v, k -> new HashSet<>()).add(u);
-        }
-
-        return adj;
-    }
-
     // returns all communities as sets of userIds
     public List<Set<Long>> findConnectedComponents(Map<Long, Set<Long>> adj) {
         List<Set<Long>> comps = new ArrayList<>();
@@ -98,59 +101,62 @@ public class CommunityService {
 
     // compute diameter (max shortest path) inside a component
     public int calculateDiameter(Set<Long> component, Map<Long, Set<Long>> adj) {
-        if (component.size() <= 1) return 0;
+        return calculateDiameter(component, adj, DiameterMode.EXACT);
+    }
 
-        int maxDist = 0;
-        for (Long startNode : component)
-            maxDist = Math.max(maxDist, bfsMaxDist(startNode, component, adj));
+    public int calculateDiameter(Set<Long> component, Map<Long, Set<Long>> adj, DiameterMode mode) {
+        DiameterEngine engine = DiameterEngine.of(component,
+                id -> adj.getOrDefault(id, Set.of()).stream().mapToLong(Long::longValue).toArray());
+        return diameter(engine, mode);
+    }
 
-        return maxDist;
+    private int diameter(DiameterEngine engine, DiameterMode mode) {
+        return switch (mode) {
+            case EXACT -> engine.exact();
+            case EXACT_PARALLEL -> engine.exactParallel(ForkJoinPool.commonPool());
+            case BOUNDED -> engine.bounds(BOUNDED_BFS_BUDGET).lower();
+        };
     }
 
     public int countCommunities() {
-        List<Long[]> edges = graph.findAllEdges();
-
-        Map<Long, Set<Long>> adj = buildAdjacencyList(edges);
-
-        List<Set<Long>> components = findConnectedComponents(adj);
+        return tracker().count();
+    }
 
-//        Long totalUsers = users.getAll().size();
-//        Long usersInFriendships = adj.size();
-//        Long isolatedUsers = totalUsers - usersInFriendships;
+    // id of the community (one of its members) the user belongs to, null if the user has no friends
+    public Long communityIdOf(Long userId) {
+        return tracker().communityIdOf(userId);
+    }
 
-        return components.size();
+    public Set<Long> communityOf(Long userId) {
+        return tracker().membersOf(userId);
     }
 
     // pick the most sociable community + report members and diameter
     public CommunitySummary mostSociableCommunity() {
-        // 1. LOAD DATA: Fetch all edges in ONE query
-        // Returns List<Long[]> where index 0 is id1, index 1 is id2
-        List<Long[]> edges = graph.findAllEdges();
-
-        // 2. BUILD GRAPH: Convert to Adjacency List in Memory
-        Map<Long, Set<Long>> adj = buildAdjacencyList(edges);
+        return mostSociableCommunity(DiameterMode.EXACT_PARALLEL);
+    }
 
-        // 3. LOGIC: Run algorithm on RAM
-        List<Set<Long>> components = findConnectedComponents(adj);
+    public CommunitySummary mostSociableCommunity(DiameterMode mode) {
+        // 1. Components and adjacency are already in memory
+        CommunityTracker t = tracker();
+        List<Set<Long>> components = t.components();
 
         if (components.isEmpty())
             return new CommunitySummary(Set.of(), 0);
 
-        // 4. FIND BEST: Sort by logic
+        // 2. FIND BEST: Sort by logic
         // Pre-calculate diameters to avoid recalculating during sort
         record CompStats(Set<Long> ids, int dia) {
         }
 
         List<CompStats> stats = components.stream()
-                .map(ids -> new CompStats(ids, calculateDiameter(ids, adj)))
+                .map(ids -> new CompStats(ids, diameter(DiameterEngine.of(ids, t.graph()::friendsOf), mode)))
                 .sorted((a, b) -> {
                     if (b.dia != a.dia) return Integer.compare(b.dia, a.dia); // desc diameter
                     return Integer.compare(b.ids.size(), a.ids.size());       // desc size
                 })
                 .toList();
 
-        if (stats.isEmpty()) return new CommunitySummary(Set.of(), 0);
-
         CompStats best = stats.getFirst();
 
         List<Long> idsToFetch = new ArrayList<>(best.ids);
@@ -0,0 +1,195 @@
+package scs.service.friend;
+
+import scs.repo.friend.friendships.FriendGraph;
+
+import java.util.*;
+
+/**
+ * Connected components of the friendship graph, kept up to date edge by edge.
+ * Adding a friendship is a union-find union, removing one re-links only the component it was in.
+ * Only users with at least one friend belong to a community (same as building it from the edge list).
+ */
+class CommunityTracker {
+    private final FriendGraph adj;
+    private final Map<Long, Integer> slots = new HashMap<>();
+
+    private long[] ids = new long[16];
+    private int[] parent = new int[16];
+    private int[] size = new int[16];
+    private int[] next = new int[16];      // circular list of the members of each component
+    private boolean[] active = new boolean[16];
+    private int used = 0;
+
+    private int components = 0;
+
+    // takes ownership of the graph
+    CommunityTracker(FriendGraph adj) {
+        this.adj = adj;
+        adj.forEachEdge(this::link);
+    }
+
+    // --- union-find ---
+    private int slot(long id) {
+        Integer s = slots.get(id);
+        if (s != null)
+            return s;
+
+        if (used == ids.length) {
+            int cap = used * 2;
+            ids = Arrays.copyOf(ids, cap);
+            parent = Arrays.copyOf(parent, cap);
+            size = Arrays.copyOf(size, cap);
+            next = Arrays.copyOf(next, cap);
+            active = Arrays.copyOf(active, cap);
+        }
+
+        int x = used++;
+        ids[x] = id;
+        parent[x] = x;
+        size[x] = 1;
+        next[x] = x;
+        slots.put(id, x);
+        return x;
+    }
+
+    private int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];  // path halving
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private void union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb)
+            return;
+
+        if (size[ra] < size[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+
+        parent[rb] = ra;
+        size[ra] += size[rb];
+
+        // splice the two member lists
+        int t = next[ra];
+        next[ra] = next[rb];
+        next[rb] = t;
+
+        components--;
+    }
+
+    private void activate(int x) {
+        if (!active[x]) {
+            active[x] = true;
+            components++;
+        }
+    }
+
+    // Rebuilds the component that contained x from the adjacency
+    private void relink(int x) {
+        List<Integer> members = new ArrayList<>();
+        int cur = x;
+        do {
+            members.add(cur);
+            cur = next[cur];
+        } while (cur != x);
+
+        // the old component is gone, its members come back as singletons below
+        components--;
+        for (int m : members) {
+            parent[m] = m;
+            size[m] = 1;
+            next[m] = m;
+            active[m] = false;
+        }
+
+        for (int m : members) {
+            long[] friends = adj.friendsOf(ids[m]);
+            if (friends.length == 0)
+                continue;
+
+            activate(m);
+            for (long f : friends) {
+                int fs = slots.get(f);
+                activate(fs);
+                union(m, fs);
+            }
+        }
+    }
+
+    // --- updates ---
+    private void link(long u, long v) {
+        int a = slot(u);
+        int b = slot(v);
+        activate(a);
+        activate(b);
+        union(a, b);
+    }
+
+    synchronized void addFriendship(long u, long v) {
+        adj.addFriendship(u, v);
+        link(u, v);
+    }
+
+    synchronized void removeFriendship(long u, long v) {
+        if (!adj.areFriends(u, v))
+            return;
+
+        adj.removeFriendship(u, v);
+        relink(slots.get(u));
+    }
+
+    synchronized void removeUser(long id) {
+        Integer x = slots.get(id);
+        if (x == null || !active[x])
+            return;
+
+        adj.removeUser(id);
+        relink(x);
+    }
+
+    // --- queries ---
+    synchronized int count() {
+        return components;
+    }
+
+    // representative user of the community, null for users without friends
+    synchronized Long communityIdOf(long id) {
+        Integer x = slots.get(id);
+        if (x == null || !active[x])
+            return null;
+        return ids[find(x)];
+    }
+
+    synchronized List<Set<Long>> components() {
+        List<Set<Long>> res = new ArrayList<>(components);
+        for (int x = 0; x < used; ++x)
+            if (active[x] && parent[x] == x)
+                res.add(membersOf(ids[x]));
+        return res;
+    }
+
+    // read-only use, arrays are swapped and never modified in place
+    FriendGraph graph() {
+        return adj;
+    }
+
+    synchronized Set<Long> membersOf(long id) {
+        Integer x = slots.get(id);
+        if (x == null || !active[x])
+            return Set.of();
+
+        Set<Long> res = new HashSet<>();
+        int cur = x;
+        do {
+            res.add(ids[cur]);
+            cur = next[cur];
+        } while (cur != x);
+        return res;
+    }
+}
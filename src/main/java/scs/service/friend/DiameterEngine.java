@@ -0,0 +1,226 @@
+package scs.service.friend;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * Diameter of one community.
+ * User ids are remapped to 0..n-1 and the adjacency is stored as CSR (offsets + targets),
+ * so every BFS runs on plain int[] arrays that are reused between sources.
+ */
+class DiameterEngine {
+    record Bounds(int lower, int upper) {
+        boolean exact() {
+            return lower == upper;
+        }
+    }
+
+    private static final int MIN_CHUNK = 16;
+
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+
+    private DiameterEngine(int n, int[] offsets, int[] targets) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    // Only friendships inside the component are kept
+    static DiameterEngine of(Collection<Long> component, LongFunction<long[]> friendsOf) {
+        int n = component.size();
+        long[] ids = new long[n];
+        Map<Long, Integer> index = new HashMap<>(n * 2);
+
+        int k = 0;
+        for (Long id : component) {
+            ids[k] = id;
+            index.put(id, k++);
+        }
+
+        int[] offsets = new int[n + 1];
+        int[] buf = new int[16];
+        int m = 0;
+
+        for (int u = 0; u < n; ++u) {
+            offsets[u] = m;
+            for (long f : friendsOf.apply(ids[u])) {
+                Integer v = index.get(f);
+                if (v == null)
+                    continue;
+
+                if (m == buf.length)
+                    buf = Arrays.copyOf(buf, m * 2);
+                buf[m++] = v;
+            }
+        }
+        offsets[n] = m;
+
+        return new DiameterEngine(n, offsets, Arrays.copyOf(buf, m));
+    }
+
+    // --- BFS core ---
+
+    // Fills dist (must be all -1) from s, returns how many nodes were reached (queue[0..reached) in BFS order)
+    private int bfs(int s, int[] dist, int[] queue) {
+        int head = 0, tail = 0;
+        queue[tail++] = s;
+        dist[s] = 0;
+
+        while (head < tail) {
+            int u = queue[head++];
+            int du = dist[u];
+            for (int i = offsets[u]; i < offsets[u + 1]; ++i) {
+                int v = targets[i];
+                if (dist[v] < 0) {
+                    dist[v] = du + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return tail;
+    }
+
+    // Only the reached nodes are touched, no full Arrays.fill per source
+    private static void reset(int[] dist, int[] queue, int reached) {
+        for (int i = 0; i < reached; ++i)
+            dist[queue[i]] = -1;
+    }
+
+    private int eccentricity(int s, int[] dist, int[] queue) {
+        int reached = bfs(s, dist, queue);
+        int ecc = dist[queue[reached - 1]];
+        reset(dist, queue, reached);
+        return ecc;
+    }
+
+    private int[] emptyDist() {
+        int[] dist = new int[n];
+        Arrays.fill(dist, -1);
+        return dist;
+    }
+
+    private int sweep(int from, int to) {
+        int[] dist = emptyDist();
+        int[] queue = new int[n];
+
+        int max = 0;
+        for (int s = from; s < to; ++s)
+            max = Math.max(max, eccentricity(s, dist, queue));
+        return max;
+    }
+
+    // --- modes ---
+    int exact() {
+        if (n <= 1)
+            return 0;
+        return sweep(0, n);
+    }
+
+    int exactParallel(ForkJoinPool pool) {
+        if (n <= 1)
+            return 0;
+
+        int chunk = Math.max(MIN_CHUNK, n / (pool.getParallelism() * 4));
+        return pool.invoke(new SourcesTask(0, n, chunk));
+    }
+
+    @SuppressWarnings("serial")     // only ever run in-process, never serialized
+    private final class SourcesTask extends RecursiveTask<Integer> {
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        SourcesTask(int from, int to, int chunk) {
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= chunk)
+                return sweep(from, to);
+
+            int mid = (from + to) >>> 1;
+            SourcesTask left = new SourcesTask(from, mid, chunk);
+            left.fork();
+            int right = new SourcesTask(mid, to, chunk).compute();
+            return Math.max(left.join(), right);
+        }
+    }
+
+    // iFUB, stops with the current bounds once maxBfs BFSes were spent
+    Bounds bounds(int maxBfs) {
+        if (n <= 1)
+            return new Bounds(0, 0);
+
+        int[] dist = emptyDist();
+        int[] queue = new int[n];
+        int used = 0;
+
+        // 1. double sweep from the best connected member: r -> a -> b
+        int r = 0;
+        for (int u = 1; u < n; ++u)
+            if (offsets[u + 1] - offsets[u] > offsets[r + 1] - offsets[r])
+                r = u;
+
+        int reached = bfs(r, dist, queue);
+        int a = queue[reached - 1];
+        reset(dist, queue, reached);
+
+        reached = bfs(a, dist, queue);
+        int b = queue[reached - 1];
+        int lower = dist[b];
+        int[] fromA = dist.clone();
+        reset(dist, queue, reached);
+
+        reached = bfs(b, dist, queue);
+        lower = Math.max(lower, dist[queue[reached - 1]]);
+        used += 3;
+
+        // 2. start iFUB from the middle of the a-b path (lower may already be ecc(b), past d(a, b))
+        int u = a;
+        for (int x = 0; x < n; ++x)
+            if (fromA[x] == fromA[b] / 2 && fromA[x] + dist[x] == fromA[b]) {
+                u = x;
+                break;
+            }
+        reset(dist, queue, reached);
+
+        reached = bfs(u, dist, queue);
+        used++;
+        int[] order = Arrays.copyOf(queue, reached);
+        int[] level = new int[reached];
+        for (int i = 0; i < reached; ++i)
+            level[i] = dist[order[i]];
+        reset(dist, queue, reached);
+
+        int eccU = level[reached - 1];
+        lower = Math.max(lower, eccU);
+        int upper = 2 * eccU;
+
+        // 3. walk the BFS levels of u from the outside in
+        int idx = reached - 1;
+        for (int i = eccU; i > 0 && upper > lower; --i) {
+            int fringe = 0;
+            while (idx >= 0 && level[idx] == i) {
+                if (used >= maxBfs)
+                    return new Bounds(Math.max(lower, fringe), upper);
+
+                fringe = Math.max(fringe, eccentricity(order[idx--], dist, queue));
+                used++;
+            }
+
+            lower = Math.max(lower, fringe);
+            if (lower > 2 * (i - 1))
+                return new Bounds(lower, lower);
+            upper = 2 * (i - 1);
+        }
+
+        return new Bounds(lower, lower);
+    }
+}
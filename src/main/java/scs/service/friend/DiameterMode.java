@@ -0,0 +1,14 @@
+package scs.service.friend;
+
+/**
+ * How community diameters are computed
+ * EXACT          - BFS from every member on the calling thread
+ * EXACT_PARALLEL - BFS from every member, sources split across a ForkJoinPool
+ * BOUNDED        - iFUB (double sweep + fringe BFSes), exact on most graphs after a few BFSes,
+ *                  falls back to the best lower bound when the BFS budget runs out
+ */
+public enum DiameterMode {
+    EXACT,
+    EXACT_PARALLEL,
+    BOUNDED
+}
@@ -3,6 +3,7 @@ package scs.service.friend;
 import scs.domain.interactions.Friendship;
 import scs.domain.user.User;
 import scs.repo.friend.friendships.FriendshipRepository;
+import scs.utilities.database.ChangeChannel;
 import scs.utilities.errors.NotFoundException;
 import scs.repo.users.UserRepository;
 import scs.utilities.errors.ValidationException;
@@ -10,6 +11,8 @@ import scs.utilities.events.ChangeEventType;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observable;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -24,6 +27,32 @@ public class FriendshipService extends Observable<EntityChangeEvent<Friendship>>
         this.graph = graph;
     }
 
+    private ChangeChannel channel;
+
+    // Shares our changes with other running instances and replays theirs to local observers
+    public void connect(ChangeChannel channel) {
+        this.channel = channel;
+        channel.subscribe(this::onRemoteChange);
+    }
+
+    private void share(ChangeEventType type, Object... keys) {
+        if (channel != null)
+            channel.publish(type, keys);
+    }
+
+    // The other instance already wrote it, local caches only need the event
+    private void onRemoteChange(ChangeEventType type, String[] keys) {
+        Friendship f = new Friendship(Long.parseLong(keys[0]), Long.parseLong(keys[1]));
+        notifyObservers(new EntityChangeEvent<>(type, f));
+    }
+
+    // Topics are both users of the friendship
+    @Override
+    protected Collection<?> topicsOf(EntityChangeEvent<Friendship> event) {
+        Friendship f = event.data();
+        return List.of(f.user1(), f.user2());
+    }
+
     public void addFriendship(Long id1, Long id2) {
         if (!users.existsById(id1) || !users.existsById(id2))
             throw new NotFoundException("user", "user(s) don't exist.");
@@ -34,12 +63,14 @@ public class FriendshipService extends Observable<EntityChangeEvent<Friendship>>
         graph.addFriendship(id1, id2);
 
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.ADD, new Friendship(id1, id2)));
+        share(ChangeEventType.ADD, id1, id2);
     }
 
     public void removeFriendship(Long id1, Long id2) {
         graph.removeFriendship(id1, id2);
 
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.DELETE, new Friendship(id1, id2)));
+        share(ChangeEventType.DELETE, id1, id2);
     }
 
     // when we add/remove users from scs.repo, update graph
@@ -63,6 +94,13 @@ public class FriendshipService extends Observable<EntityChangeEvent<Friendship>>
         return graph.areFriends(id1, id2);
     }
 
+    // which of the given users are friends with id, one lookup instead of one per user
+    public Set<Long> friendsAmong(Long id, Collection<Long> others) {
+        Set<Long> friends = graph.getFriends(id);
+        friends.retainAll(others instanceof Set<?> ? others : new HashSet<>(others));
+        return friends;
+    }
+
     public List<User> getAllUsers() {
         return users.getAll();
     }
@@ -1,17 +1,20 @@
 package scs.service.friend;
 
 import scs.domain.interactions.FriendRequest;
+import scs.domain.interactions.Relation;
 import scs.domain.interactions.RequestStatus;
 import scs.domain.user.User;
 import scs.repo.friend.requests.RequestRepository;
 import scs.repo.users.UserRepository;
+import scs.utilities.database.ChangeChannel;
 import scs.utilities.errors.NotFoundException;
 import scs.utilities.errors.ValidationException;
 import scs.utilities.events.ChangeEventType;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observable;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
 
 public class RequestService extends Observable<EntityChangeEvent<FriendRequest>> {
     private final RequestRepository requestRepo;
@@ -24,6 +27,44 @@ public class RequestService extends Observable<EntityChangeEvent<FriendRequest>>
         this.userRepo = userRepo;
     }
 
+    private ChangeChannel channel;
+
+    // Shares our changes with other running instances and replays theirs to local observers
+    public void connect(ChangeChannel channel) {
+        this.channel = channel;
+        channel.subscribe(this::onRemoteChange);
+    }
+
+    private void share(ChangeEventType type, Object... keys) {
+        if (channel != null)
+            channel.publish(type, keys);
+    }
+
+    // keys are id, from, to
+    private void onRemoteChange(ChangeEventType type, String[] keys) {
+        Long fromId = Long.parseLong(keys[1]);
+        Long toId = Long.parseLong(keys[2]);
+
+        FriendRequest req;
+        if (type == ChangeEventType.DELETE) {
+            // already gone from the database, rebuild what observers match on
+            Long id = keys[0].equals("null") ? null : Long.parseLong(keys[0]);
+            req = new FriendRequest(id, userRepo.findById(fromId), userRepo.findById(toId),
+                    RequestStatus.PENDING, LocalDateTime.now());
+        } else
+            req = requestRepo.findOne(fromId, toId);
+
+        if (req != null)
+            notifyObservers(new EntityChangeEvent<>(type, req));
+    }
+
+    // Topics are both ends of the request
+    @Override
+    protected Collection<?> topicsOf(EntityChangeEvent<FriendRequest> event) {
+        FriendRequest r = event.data();
+        return List.of(r.getFrom().getId(), r.getTo().getId());
+    }
+
     public void sendRequest(Long fromId, Long toId) {
         if (fromId.equals(toId))
             throw new ValidationException("request", "Cannot send request to yourself.");
@@ -48,6 +89,7 @@ public class RequestService extends Observable<EntityChangeEvent<FriendRequest>>
         requestRepo.save(req);
 
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.ADD, req));
+        share(ChangeEventType.ADD, req.getId(), fromId, toId);
     }
 
     public void acceptRequest(FriendRequest req) {
@@ -59,6 +101,7 @@ public class RequestService extends Observable<EntityChangeEvent<FriendRequest>>
         friendshipService.addFriendship(req.getFrom().getId(), req.getTo().getId());
 
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.DELETE, req));
+        share(ChangeEventType.DELETE, req.getId(), req.getFrom().getId(), req.getTo().getId());
     }
 
     public void rejectRequest(FriendRequest req) {
@@ -67,9 +110,29 @@ public class RequestService extends Observable<EntityChangeEvent<FriendRequest>>
 
         requestRepo.delete(req);
         notifyObservers(new EntityChangeEvent<>(ChangeEventType.DELETE, req));
+        share(ChangeEventType.DELETE, req.getId(), req.getFrom().getId(), req.getTo().getId());
     }
 
     public List<FriendRequest> getPendingRequests(Long userId) {
         return requestRepo.findPending(userId);
     }
+
+    // Relation of every given user to the viewer: friends first, then pending requests, NONE otherwise
+    public Map<Long, Relation> getRelations(Long viewerId, Collection<Long> userIds) {
+        Map<Long, Relation> relations = new HashMap<>();
+        if (userIds == null || userIds.isEmpty())
+            return relations;
+
+        Map<Long, Relation> pending = requestRepo.findPendingRelations(viewerId, userIds);
+        Set<Long> friends = friendshipService.friendsAmong(viewerId, userIds);
+
+        for (Long id : userIds) {
+            if (friends.contains(id))
+                relations.put(id, Relation.FRIEND);
+            else
+                relations.put(id, pending.getOrDefault(id, Relation.NONE));
+        }
+
+        return relations;
+    }
 }
@@ -0,0 +1,175 @@
+package scs.service.social;
+
+import scs.domain.interactions.Message;
+import scs.repo.messages.MessageRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind queue for new messages.
+ * A single writer thread commits up to batchSize messages at a time, waiting at most lingerMillis
+ * after the first one for more to arrive. Futures complete, and onSaved runs, only after the commit.
+ * If a group commit fails its messages are retried one by one, so only the bad ones fail.
+ * The writer runs between start() and close(); close() still commits what was already queued.
+ */
+class MessageBatcher {
+    private record Pending(Message message, CompletableFuture<Message> future) {
+    }
+
+    // queued by close(), everything before it is still committed
+    private static final Pending STOP = new Pending(null, null);
+
+    private final MessageRepository repo;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final BlockingQueue<Pending> queue;
+
+    private Consumer<Message> onSaved;
+    private Thread writer;
+    private volatile boolean closed = false;
+
+    MessageBatcher(MessageRepository repo, int batchSize, long lingerMillis, int capacity) {
+        this.repo = repo;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    // onSaved runs on the writer thread after each commit
+    synchronized void start(Consumer<Message> onSaved) {
+        if (writer != null || closed)
+            return;
+        this.onSaved = onSaved;
+        writer = Thread.ofPlatform().daemon().name("message-writer").start(this::run);
+    }
+
+    // Stops taking messages, commits the ones already queued and waits up to timeoutMillis for the writer
+    void close(long timeoutMillis) {
+        Thread w;
+        synchronized (this) {
+            closed = true;
+            w = writer;
+        }
+        try {
+            if (w != null) {
+                queue.put(STOP);
+                w.join(timeoutMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // raced with close(), or no writer ever ran
+        failRemaining();
+    }
+
+    // Blocks while the queue is full
+    CompletableFuture<Message> submit(Message message) {
+        CompletableFuture<Message> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("Message writer is closed."));
+            return future;
+        }
+
+        try {
+            queue.put(new Pending(message, future));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                Pending first = queue.take();
+                if (first == STOP)
+                    return;
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    long left = deadline - System.nanoTime();
+                    Pending next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null)
+                        break;
+                    if (next == STOP) {
+                        stopping = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+
+            // a failure here must not end the loop, later messages would wait forever
+            try {
+                flush(batch);
+            } catch (RuntimeException e) {
+                for (Pending p : batch)
+                    p.future().completeExceptionally(e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void failRemaining() {
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (Pending p : left)
+            if (p != STOP)
+                p.future().completeExceptionally(new IllegalStateException("Message writer is closed."));
+    }
+
+    private void flush(List<Pending> batch) {
+        if (batch.isEmpty())
+            return;
+
+        try {
+            repo.saveAll(batch.stream().map(Pending::message).toList());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.getFirst().future().completeExceptionally(e);
+                return;
+            }
+
+            // e.g. a reply target deleted since validation, find the message(s) at fault
+            for (Pending p : batch)
+                saveOne(p);
+            return;
+        }
+
+        for (Pending p : batch)
+            saved(p);
+    }
+
+    private void saveOne(Pending p) {
+        try {
+            repo.save(p.message());
+        } catch (RuntimeException e) {
+            p.future().completeExceptionally(e);
+            return;
+        }
+        saved(p);
+    }
+
+    // A failing observer hook must not fail the send or stop the writer
+    private void saved(Pending p) {
+        try {
+            onSaved.accept(p.message());
+        } catch (RuntimeException e) {
+            System.err.println("After-save hook failed for message " + p.message().getId() + ": " + e.getMessage());
+        } finally {
+            p.future().complete(p.message());
+        }
+    }
+}
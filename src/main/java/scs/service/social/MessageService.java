@@ -1,17 +1,25 @@
 package scs.service.social;
 
 import scs.domain.interactions.Message;
+import scs.domain.user.Person;
 import scs.domain.user.User;
 import scs.repo.messages.MessageRepository;
 import scs.repo.users.UserRepository;
+import scs.utilities.database.ChangeChannel;
 import scs.utilities.errors.NotFoundException;
 import scs.utilities.errors.ValidationException;
 import scs.utilities.events.ChangeEventType;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observable;
-import scs.utilities.paging.Pageable;
+import scs.utilities.paging.MessageCursor;
+import scs.utilities.paging.MessagePage;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class MessageService extends Observable<EntityChangeEvent<Message>> {
 
@@ -19,12 +27,76 @@ public class MessageService extends Observable<EntityChangeEvent<Message>> {
     private final MessageRepository repo;
     private final UserRepository userRepo;
 
+    // group commit: up to 64 messages, waiting at most 5 ms for more
+    private static final int BATCH_SIZE = 64;
+    private static final long LINGER_MILLIS = 5;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+
+    private final MessageBatcher batcher;
+
     public MessageService(MessageRepository repo, UserRepository userRepo) {
         this.repo = repo;
         this.userRepo = userRepo;
+        this.batcher = new MessageBatcher(repo, BATCH_SIZE, LINGER_MILLIS, QUEUE_CAPACITY);
+    }
+
+    // The message writer thread, owned by whoever built the service (AppContext)
+    public void start() {
+        batcher.start(this::afterSave);
+    }
+
+    // Commits what is already queued, later sends fail
+    public void close() {
+        batcher.close(CLOSE_TIMEOUT_MILLIS);
+    }
+
+    private ChangeChannel channel;
+
+    // Shares our changes with other running instances and replays theirs to local observers
+    public void connect(ChangeChannel channel) {
+        this.channel = channel;
+        channel.subscribe(this::onRemoteChange);
     }
 
+    private void share(ChangeEventType type, Object... keys) {
+        if (channel != null)
+            channel.publish(type, keys);
+    }
+
+    private void onRemoteChange(ChangeEventType type, String[] keys) {
+        if (type != ChangeEventType.ADD)
+            return;
+
+        Message msg = repo.findById(Long.parseLong(keys[0]));
+        if (msg != null)
+            notifyObservers(new EntityChangeEvent<>(ChangeEventType.ADD, msg));
+    }
+
+    // Topics are the sender and every recipient, so a view can listen to "messages involving user X"
+    @Override
+    protected Collection<?> topicsOf(EntityChangeEvent<Message> event) {
+        Message m = event.data();
+        Set<Long> ids = new HashSet<>();
+        ids.add(m.getFrom().getId());
+        for (User u : m.getTo())
+            ids.add(u.getId());
+        return ids;
+    }
+
+    // Waits for the commit, errors surface as the original exception
     public void sendMessage(Long senderId, List<Long> targetIds, String text, Long replyToId) {
+        try {
+            sendMessageAsync(senderId, targetIds, text, replyToId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    // Validation errors are thrown right away, the future completes with the saved message (id set) after commit
+    public CompletableFuture<Message> sendMessageAsync(Long senderId, List<Long> targetIds, String text, Long replyToId) {
         // Validation
         if (text == null || text.trim().isEmpty())
             throw new ValidationException("message", "Message text cannot be empty.");
@@ -38,12 +110,7 @@ public class MessageService extends Observable<EntityChangeEvent<Message>> {
             throw new NotFoundException("sender", "Sender not found.");
 
         // Load recipients
-        List<User> recipients = userRepo.search(
-                new Pageable(0, targetIds.size()),
-                "ALL", "ALL",
-                targetIds,
-                null
-        ).getElementsOnPage();
+        List<User> recipients = userRepo.findUsersByIds(targetIds);
 
         if (recipients.isEmpty())
             throw new ValidationException("recipients", "The recipient/s don't exist.");
@@ -58,10 +125,35 @@ public class MessageService extends Observable<EntityChangeEvent<Message>> {
 
         // Create
         Message msg = new Message(sender, recipients, text, replyMsg);
-        repo.save(msg);
+        return batcher.submit(msg);
+    }
+
+    // One message to every subscriber of an event, recipients never leave the database as users
+    public void broadcastToEventSubscribers(Long senderId, Long eventId, String text) {
+        if (text == null || text.trim().isEmpty())
+            throw new ValidationException("message", "Message text cannot be empty.");
+
+        User sender = userRepo.findById(senderId);
+        if (sender == null)
+            throw new NotFoundException("sender", "Sender not found.");
 
+        Message msg = new Message(sender, List.of(), text);
+        long[] recipientIds = repo.saveBroadcast(msg, eventId);
+        if (recipientIds.length == 0)
+            return;
+
+        // id-only recipients, enough for observers to route the message
+        for (long id : recipientIds)
+            msg.getTo().add(new Person.Builder(id).build());
+
+        afterSave(msg);
+    }
+
+    // Runs on the writer thread once the batch holding msg is committed
+    private void afterSave(Message msg) {
         EntityChangeEvent<Message> event = new EntityChangeEvent<>(ChangeEventType.ADD, msg);
         notifyObservers(event);
+        share(ChangeEventType.ADD, msg.getId());
     }
 
     public List<Message> getConversation(Long id1, Long id2) {
@@ -70,4 +162,12 @@ public class MessageService extends Observable<EntityChangeEvent<Message>> {
 
         return repo.findConversation(id1, id2);
     }
+
+    // A page of history, latest messages first call, older ones by passing page.olderCursor()
+    public MessagePage getConversation(Long id1, Long id2, MessageCursor cursor) {
+        if (!userRepo.existsById(id1)) throw new NotFoundException("user", "User with id" + id1 + " does not exist.");
+        if (!userRepo.existsById(id2)) throw new NotFoundException("user", "User with id" + id2 + " does not exist.");
+
+        return repo.findConversation(id1, id2, cursor);
+    }
 }
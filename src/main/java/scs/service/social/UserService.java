@@ -28,6 +28,12 @@ public class UserService extends Observable<EntityChangeEvent<User>> {
         this.ids = ids;
     }
 
+    // Topic is the user's id
+    @Override
+    protected Collection<?> topicsOf(EntityChangeEvent<User> event) {
+        return List.of(event.data().getId());
+    }
+
     private String hashPassword(String plainPassword) {
         return BCrypt.hashpw(plainPassword, BCrypt.gensalt());
     }
@@ -144,11 +150,13 @@ public class UserService extends Observable<EntityChangeEvent<User>> {
         return repo.findUsersByIds(ids);
     }
 
-    public Page<User> searchUsers(Pageable pageable, String userType, String duckType,
-                                  String relationFilter, Long currentUserId, Set<Long> friendIds) {
-        List<Long> include = new ArrayList<>();
-        List<Long> exclude = new ArrayList<>();
+    public List<UserSummary> findSummariesByIds(Collection<Long> ids) {
+        return repo.findSummariesByIds(ids);
+    }
 
+    // Fills include/exclude for the relation filter, returns false if nothing can match
+    private boolean buildRelationFilter(String relationFilter, Long currentUserId, Set<Long> friendIds,
+                                        List<Long> include, List<Long> exclude) {
         // Exclusions
         exclude.add(currentUserId);
         exclude.add(RACE_BOT_ID);
@@ -156,7 +164,7 @@ public class UserService extends Observable<EntityChangeEvent<User>> {
         switch (relationFilter) {
             case "FRIENDS" -> {
                 if (friendIds.isEmpty())
-                    return new Page<>(List.of(), 0, pageable.getPageSize());
+                    return false;
                 include.addAll(friendIds);
             }
             case "NOT FRIENDS" -> {
@@ -166,9 +174,42 @@ public class UserService extends Observable<EntityChangeEvent<User>> {
 
             }
         }
+        return true;
+    }
+
+    public Page<User> searchUsers(Pageable pageable, String userType, String duckType,
+                                  String relationFilter, Long currentUserId, Set<Long> friendIds) {
+        List<Long> include = new ArrayList<>();
+        List<Long> exclude = new ArrayList<>();
+
+        if (!buildRelationFilter(relationFilter, currentUserId, friendIds, include, exclude))
+            return new Page<>(List.of(), 0, pageable.getPageSize());
+
         return repo.search(pageable, userType, duckType, include, exclude);
     }
 
+    public CursorPage<User> searchUsers(Cursor cursor, String userType, String duckType,
+                                        String relationFilter, Long currentUserId, Set<Long> friendIds) {
+        List<Long> include = new ArrayList<>();
+        List<Long> exclude = new ArrayList<>();
+
+        if (!buildRelationFilter(relationFilter, currentUserId, friendIds, include, exclude))
+            return CursorPage.empty(cursor.getPageSize());
+
+        return repo.search(cursor, userType, duckType, include, exclude);
+    }
+
+    public int countUsers(String userType, String duckType,
+                          String relationFilter, Long currentUserId, Set<Long> friendIds) {
+        List<Long> include = new ArrayList<>();
+        List<Long> exclude = new ArrayList<>();
+
+        if (!buildRelationFilter(relationFilter, currentUserId, friendIds, include, exclude))
+            return 0;
+
+        return repo.count(userType, duckType, include, exclude);
+    }
+
     public User login(String email, String password) {
         if (email == null || email.isBlank())
             throw new ValidationException("login email", "Email cannot be empty.");
@@ -0,0 +1,58 @@
+package scs.ui;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * The one load a view is waiting for.
+ * Starting a new load cancels the previous one, and callbacks run on the FX thread only while their load
+ * is still the current one, so a slow answer to an old click never overwrites a newer one.
+ * Use from the FX thread.
+ */
+public final class LoadSlot {
+    private CompletableFuture<?> current;
+
+    public <T> void start(CompletableFuture<T> load, Consumer<T> onLoaded, Consumer<Throwable> onFailed) {
+        cancel();
+        current = load;
+
+        load.whenComplete((value, error) -> Platform.runLater(() -> {
+            if (current != load)
+                return;
+            current = null;
+
+            if (error == null)
+                onLoaded.accept(value);
+            else if (!(unwrap(error) instanceof CancellationException))
+                onFailed.accept(unwrap(error));
+        }));
+    }
+
+    public boolean isLoading() {
+        return current != null;
+    }
+
+    public void cancel() {
+        if (current != null)
+            current.cancel(false);
+        current = null;
+    }
+
+    // Delivers on the FX thread without cancelling anything, for writes and one-off calls
+    public static <T> void onFx(CompletableFuture<T> call, Consumer<T> onDone, Consumer<Throwable> onFailed) {
+        call.whenComplete((value, error) -> Platform.runLater(() -> {
+            if (error == null)
+                onDone.accept(value);
+            else
+                onFailed.accept(unwrap(error));
+        }));
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
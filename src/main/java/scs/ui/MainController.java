@@ -26,6 +26,7 @@ import scs.ui.controllers.social.SocialController;
 import scs.ui.pages.ProfilePage;
 import scs.utilities.events.ChangeEventType;
 import scs.utilities.events.EntityChangeEvent;
+import scs.utilities.observer.Observer;
 
 
 public class MainController {
@@ -49,12 +50,15 @@ public class MainController {
     private MessageService messageService;
     private User loggedInUser;
 
+    private final Observer<EntityChangeEvent<FriendRequest>> requestObserver = this::onFriendRequestEvent;
+    private final Observer<EntityChangeEvent<Message>> messageObserver = this::onMessageEvent;
+
     public void setContext(AppContext ctx, User user, Runnable logoutAction) {
         this.loggedInUser = user;
         this.requestService = ctx.PGRequestService;
         this.messageService = ctx.PGMessageService;
 
-        ProfilePage profilePage = new ProfilePage(user, true, false, ctx.PGUserService, logoutAction);
+        ProfilePage profilePage = new ProfilePage(user, true, false, ctx.PGAsync, logoutAction);
 
         Tab profileTab = new Tab("Profile");
         profileTab.setContent(profilePage.getView());
@@ -62,30 +66,22 @@ public class MainController {
 
         mainTabPane.getTabs().addFirst(profileTab);
 
-        userViewController.setContext(
-                ctx.PGUserService,
-                ctx.PGRequestService,
-                ctx.PGFriendshipService,
-                loggedInUser);
+        userViewController.setContext(ctx.PGUserService, ctx.PGAsync, loggedInUser);
 
-        socialViewController.setServices(
-                ctx.PGUserService,
-                ctx.PGFriendshipService,
-                ctx.PGCommunityService,
-                ctx.PGRequestService,
-                loggedInUser);
+        socialViewController.setServices(ctx.PGRequestService, ctx.PGAsync, loggedInUser);
 
-        herdViewController.setService(ctx.PGCardService, loggedInUser);
+        herdViewController.setService(ctx.PGCardService, ctx.PGAsync, loggedInUser);
 
-        eventViewController.setServices(ctx.PGEventService, ctx.PGUserService, loggedInUser);
+        eventViewController.setServices(ctx.PGEventService, ctx.PGAsync, loggedInUser);
 
-        raceViewController.setServices(ctx.PGCardService, ctx.PGEventService, loggedInUser);
+        raceViewController.setServices(ctx.PGCardService, ctx.PGEventService, ctx.PGAsync, loggedInUser);
 
-        chatViewController.setServices(ctx.PGMessageService, ctx.PGUserService, ctx.PGFriendshipService);
+        chatViewController.setServices(ctx.PGMessageService, ctx.PGUserService, ctx.PGFriendshipService, ctx.PGAsync);
         chatViewController.setLoggedInUser(user);
 
-        this.requestService.addObserver(this::onFriendRequestEvent);
-        this.messageService.addObserver(this::onMessageEvent);
+        // only requests and messages involving the logged in user are delivered here
+        this.requestService.subscribe(loggedInUser.getId(), requestObserver);
+        this.messageService.subscribe(loggedInUser.getId(), messageObserver);
     }
 
     private void onFriendRequestEvent(EntityChangeEvent<FriendRequest> event) {
@@ -152,7 +148,7 @@ public class MainController {
         if (herdViewController != null) herdViewController.cleanup();
         if (raceViewController != null) raceViewController.cleanup();
 
-        if (requestService != null) requestService.removeObserver(this::onFriendRequestEvent);
-        if (messageService != null) messageService.removeObserver(this::onMessageEvent);
+        if (requestService != null) requestService.unsubscribe(loggedInUser.getId(), requestObserver);
+        if (messageService != null) messageService.unsubscribe(loggedInUser.getId(), messageObserver);
     }
 }
@@ -12,8 +12,9 @@ import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
+import scs.app.AsyncServices;
 import scs.domain.user.*;
-import scs.service.social.UserService;
+import scs.ui.LoadSlot;
 import scs.ui.controllers.logins.LoginController;
 
 import java.io.IOException;
@@ -43,12 +44,12 @@ public class ProfileController {
 
 
     private User currentUser;
-    private UserService userService;
+    private AsyncServices async;
     private Runnable logoutHandler;
 
-    public void setContext(User user, UserService service, Runnable logoutHandler) {
+    public void setContext(User user, AsyncServices async, Runnable logoutHandler) {
         this.currentUser = user;
-        this.userService = service;
+        this.async = async;
         this.logoutHandler = logoutHandler;
         updateUI();
     }
@@ -175,13 +176,16 @@ public class ProfileController {
 
     @FXML public void onDeleteAccount() {
         if (confirmAction("Delete Account", "WARNING: This cannot be undone. Are you sure?")) {
-            try {
-                userService.deleteUser(currentUser.getId());
-                if (logoutHandler != null)
-                    logoutHandler.run();
-            } catch (Exception e) {
-                new Alert(Alert.AlertType.ERROR, "Could not delete accound: " + e.getMessage()).show();
-            }
+            btnDelete.setDisable(true);
+            LoadSlot.onFx(async.deleteUser(currentUser.getId()),
+                    done -> {
+                        if (logoutHandler != null)
+                            logoutHandler.run();
+                    },
+                    e -> {
+                        btnDelete.setDisable(false);
+                        new Alert(Alert.AlertType.ERROR, "Could not delete accound: " + e.getMessage()).show();
+                    });
         }
     }
 
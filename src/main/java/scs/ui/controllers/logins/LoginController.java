@@ -7,8 +7,9 @@ import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
+import scs.app.AsyncServices;
 import scs.domain.user.User;
-import scs.service.social.UserService;
+import scs.ui.LoadSlot;
 
 import java.io.IOException;
 
@@ -24,15 +25,18 @@ public class LoginController {
     @FXML
     private Label errorLabel;
 
-    private UserService userService;
+    private AsyncServices async;
     private LoginAction onLoginSuccess;
 
+    // one check at a time, a second click while bcrypt runs is ignored
+    private final LoadSlot loginLoad = new LoadSlot();
+
     public interface LoginAction {
         void onLogin(User user);
     }
 
-    public void setService(UserService service, LoginAction action) {
-        this.userService = service;
+    public void setService(AsyncServices async, LoginAction action) {
+        this.async = async;
         this.onLoginSuccess = action;
 
         passHiddenField.textProperty().bindBidirectional(passTextField.textProperty());
@@ -43,17 +47,21 @@ public class LoginController {
         String email = emailField.getText();
         String pass = passHiddenField.getText();
 
-        try {
-            User user = userService.login(email, pass);
-            errorLabel.setVisible(false);
-
-            if (onLoginSuccess != null)
-                onLoginSuccess.onLogin(user);
-        } catch (Exception e) {
-            errorLabel.setText(e.getMessage());
-            errorLabel.setVisible(true);
-            // System.out.println(e.getMessage());
-        }
+        if (loginLoad.isLoading())
+            return;
+
+        loginLoad.start(async.login(email, pass),
+                user -> {
+                    errorLabel.setVisible(false);
+
+                    if (onLoginSuccess != null)
+                        onLoginSuccess.onLogin(user);
+                },
+                e -> {
+                    errorLabel.setText(e.getMessage());
+                    errorLabel.setVisible(true);
+                    // System.out.println(e.getMessage());
+                });
     }
 
     @FXML
@@ -74,7 +82,7 @@ public class LoginController {
             Parent root = loader.load();
 
             SignUpController ctrl = loader.getController();
-            ctrl.setService(userService, onLoginSuccess);
+            ctrl.setService(async, onLoginSuccess);
 
             emailField.getScene().setRoot(root);
 
@@ -2,8 +2,9 @@ package scs.ui.controllers.logins;
 
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
+import scs.app.AsyncServices;
 import scs.domain.user.User;
-import scs.service.social.UserService;
+import scs.ui.LoadSlot;
 import scs.ui.controllers.logins.LoginController.LoginAction;
 
 import javafx.fxml.FXML;
@@ -13,6 +14,7 @@ import scs.utilities.errors.ValidationException;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 public class SignUpController {
     @FXML
@@ -49,11 +51,14 @@ public class SignUpController {
     @FXML
     private Label errorLabel;
 
-    private UserService userService;
+    private AsyncServices async;
     private LoginAction onLoginSuccess;
 
-    public void setService(UserService service, LoginAction action) {
-        this.userService = service;
+    // a double click must not try to create the account twice
+    private final LoadSlot registerLoad = new LoadSlot();
+
+    public void setService(AsyncServices async, LoginAction action) {
+        this.async = async;
         this.onLoginSuccess = action;
     }
 
@@ -74,13 +79,16 @@ public class SignUpController {
 
     @FXML
     public void onRegister() {
+        if (registerLoad.isLoading())
+            return;
+
         try {
             String username = usernameField.getText();
             String email = emailField.getText();
             String pass = passHidden.getText();
             String type = typeSelector.getValue();
 
-            User newUser;
+            CompletableFuture<? extends User> newUser;
 
             if (type.equals("Person")) {
                 String first = firstNameField.getText();
@@ -88,7 +96,7 @@ public class SignUpController {
                 String job = jobField.getText();
                 LocalDate dob = birthDate.getValue();
 
-                newUser = userService.createPerson(username, email, pass, last, first, dob, job);
+                newUser = async.createPerson(username, email, pass, last, first, dob, job);
             } else {
                 double speed = Double.parseDouble(speedField.getText());
                 double res = Double.parseDouble(resistanceField.getText());
@@ -97,15 +105,18 @@ public class SignUpController {
                 if (species == null)
                     throw new ValidationException("duck type", "Please select a species");
 
-                newUser = switch (species) {
-                    case "SWIMMING" -> userService.createSwimmingDuck(username, email, pass, speed, res);
-                    case "FLYING" -> userService.createFlyingDuck(username, email, pass, speed, res);
-                    default -> userService.createHybridDuck(username, email, pass, speed, res);
-                };
+                newUser = async.createDuck(species, username, email, pass, speed, res);
             }
 
-            if (onLoginSuccess != null)
-                onLoginSuccess.onLogin(newUser);
+            registerLoad.start(newUser,
+                    user -> {
+                        if (onLoginSuccess != null)
+                            onLoginSuccess.onLogin(user);
+                    },
+                    e -> {
+                        errorLabel.setText("Error: " + e.getMessage());
+                        errorLabel.setVisible(true);
+                    });
         } catch (NumberFormatException e) {
             errorLabel.setText("Speed and Resistance must be a valid number.");
             errorLabel.setVisible(true);
@@ -133,7 +144,7 @@ public class SignUpController {
             Parent root = loader.load();
 
             LoginController ctrl = loader.getController();
-            ctrl.setService(userService, onLoginSuccess);
+            ctrl.setService(async, onLoginSuccess);
 
             usernameField.getScene().setRoot(root);
         } catch (IOException e) {
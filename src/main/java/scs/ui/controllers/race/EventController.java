@@ -15,14 +15,19 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import scs.app.AsyncServices;
 import scs.domain.event.Event;
 import scs.domain.user.User;
+import scs.domain.user.UserSummary;
 import scs.service.EventService;
-import scs.service.social.UserService;
+import scs.ui.LoadSlot;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observer;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class EventController implements Observer<EntityChangeEvent<Event>> {
     @FXML private FlowPane eventsGrid;
@@ -33,12 +38,15 @@ public class EventController implements Observer<EntityChangeEvent<Event>> {
     private Long activePopupEventId;
 
     private EventService eventService;
-    private UserService userService;
+    private AsyncServices async;
     private User currentUser;
 
-    public void setServices(EventService es, UserService us, User user) {
+    private final LoadSlot gridLoad = new LoadSlot();
+    private final LoadSlot popupLoad = new LoadSlot();
+
+    public void setServices(EventService es, AsyncServices async, User user) {
         this.eventService = es;
-        this.userService = us;
+        this.async = async;
         this.currentUser = user;
 
         this.eventService.addObserver(this);
@@ -65,12 +73,16 @@ public class EventController implements Observer<EntityChangeEvent<Event>> {
     }
 
     private void refreshGrid() {
-        eventsGrid.getChildren().clear();
-
-        for (Event event : eventService.getAll()) {
-            VBox card = createEventCard(event);
-            eventsGrid.getChildren().add(card);
-        }
+        gridLoad.start(async.events(),
+                events -> {
+                    eventsGrid.getChildren().clear();
+
+                    for (Event event : events) {
+                        VBox card = createEventCard(event);
+                        eventsGrid.getChildren().add(card);
+                    }
+                },
+                e -> showAlert("Failed to load events: " + e.getMessage()));
     }
 
     private Node findCardById(Long id) {
@@ -168,6 +180,7 @@ public class EventController implements Observer<EntityChangeEvent<Event>> {
         activePopupStage.setTitle("Subscribers: " + event.getName());
 
         activePopupStage.setOnHidden(e -> {
+            popupLoad.cancel();
             activePopupStage = null;
             activePopupList = null;
             activePopupEventId = null;
@@ -195,30 +208,35 @@ public class EventController implements Observer<EntityChangeEvent<Event>> {
         if (activePopupList == null)
             return;
 
-        List<String> names = freshEvent.getSubscribers().stream()
-                .map(id -> {
-                    User u = userService.findById(id);
-                    return u != null ? u.getUsername() : "Unknown ID: " + id;
-                })
-                .toList();
-
-        activePopupList.setItems(FXCollections.observableArrayList(names));
+        // every subscriber in one query, a newer event update replaces a pending one
+        List<Long> ids = List.copyOf(freshEvent.getSubscribers());
+        popupLoad.start(async.userSummaries(ids),
+                summaries -> {
+                    if (activePopupList == null)
+                        return;
+
+                    Map<Long, UserSummary> byId = summaries.stream()
+                            .collect(Collectors.toMap(UserSummary::id, Function.identity()));
+                    List<String> names = ids.stream()
+                            .map(id -> byId.containsKey(id) ? byId.get(id).username() : "Unknown ID: " + id)
+                            .toList();
+
+                    activePopupList.setItems(FXCollections.observableArrayList(names));
+                },
+                e -> showAlert("Failed to load subscribers: " + e.getMessage()));
     }
 
+    // cards are redrawn from the change event once the write is done
     private void handleSubscribe(Event event) {
-        try {
-            eventService.subscribe(event.getId(), currentUser.getId());
-        } catch (Exception e) {
-            showAlert("Failed to subscribe: " + e.getMessage());
-        }
+        LoadSlot.onFx(async.subscribe(event.getId(), currentUser.getId()),
+                done -> { },
+                e -> showAlert("Failed to subscribe: " + e.getMessage()));
     }
 
     private void handleUnsubscribe(Event event) {
-        try {
-            eventService.unsubscribe(event.getId(), currentUser.getId());
-        } catch (Exception e) {
-            showAlert("Failed to unsubscribe: " + e.getMessage());
-        }
+        LoadSlot.onFx(async.unsubscribe(event.getId(), currentUser.getId()),
+                done -> { },
+                e -> showAlert("Failed to unsubscribe: " + e.getMessage()));
     }
 
     private void showAlert(String msg){
@@ -231,16 +249,14 @@ public class EventController implements Observer<EntityChangeEvent<Event>> {
         if (name.isBlank())
             return;
 
-        try {
-            Event newEvent = eventService.createEvent(name);
-            eventService.subscribe(newEvent.getId(), currentUser.getId());
-            newEventName.clear();
-        } catch (Exception ex) {
-            showAlert("Error: " + ex.getMessage());
-        }
+        LoadSlot.onFx(async.createEvent(name, currentUser.getId()),
+                newEvent -> newEventName.clear(),
+                ex -> showAlert("Error: " + ex.getMessage()));
     }
 
     public void cleanup() {
+        gridLoad.cancel();
+        popupLoad.cancel();
         if (eventService != null)
             eventService.removeObserver(this);
     }
@@ -3,22 +3,29 @@ package scs.ui.controllers.race;
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.scene.control.*;
+import scs.app.AsyncServices;
 import scs.domain.group.Herd;
+import scs.domain.group.HerdSummary;
+import scs.domain.group.MembershipChange;
 import scs.domain.group.Performance;
 import scs.domain.user.Duck;
 import scs.domain.user.User;
 import scs.service.HerdService;
+import scs.ui.LoadSlot;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observer;
+import scs.utilities.paging.Cursor;
+import scs.utilities.paging.CursorPage;
 
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.layout.VBox;
 import javafx.collections.FXCollections;
-import javafx.concurrent.Task;
 
 public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
     @FXML
-    private ListView<Herd<Duck>> herdList;
+    private ListView<HerdSummary> herdList;
     @FXML
     private TextField newHerdName;
     @FXML
@@ -32,24 +39,41 @@ public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
     @FXML
     private Button actionBtn;
 
-    private final ObservableList<Herd<Duck>> herdsModel = FXCollections.observableArrayList();
+    private static final int HERD_PAGE_SIZE = 50;
+
+    private final ObservableList<HerdSummary> herdsModel = FXCollections.observableArrayList();
     private final ObservableList<Duck> membersModel = FXCollections.observableArrayList();
 
     private HerdService herdService;
+    private AsyncServices async;
     private User currentUser;
     private boolean isDuck;
 
     private Herd<Duck> currentDisplayedHerd;
+    private CursorPage<HerdSummary> lastLoaded;
+
+    private final LoadSlot pageLoad = new LoadSlot();
+    // clicking another herd drops the details still loading for the previous one
+    private final LoadSlot detailsLoad = new LoadSlot();
+
+    private final Observer<MembershipChange> membershipObserver = this::onMembershipChange;
 
-    public void setService(HerdService hs, User user) {
+    public void setService(HerdService hs, AsyncServices async, User user) {
         this.herdService = hs;
+        this.async = async;
         this.currentUser = user;
         this.isDuck = (user instanceof Duck);
 
         this.herdService.addObserver(this);
+        this.herdService.memberships().addObserver(membershipObserver);
 
         initUI();
-        herdsModel.setAll(herdService.getAll());
+        pageLoad.start(async.herdSummaries(Cursor.first(HERD_PAGE_SIZE)),
+                page -> {
+                    lastLoaded = page;
+                    herdsModel.setAll(page.getElementsOnPage());
+                },
+                e -> showAlert("Failed to load herds: " + e.getMessage()));
         // System.out.println("HerdController init: User=" + user.getUsername() + ", isDuck=" + isDuck);
     }
 
@@ -59,13 +83,41 @@ public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
 
         herdList.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
 
+            // the same herd re-selected after its row was patched is already on screen
+            if (newVal != null && currentDisplayedHerd != null && currentDisplayedHerd.getId().equals(newVal.id()))
+                return;
+
             if (newVal != null)
                 fetchAndShowDetails(newVal);
             else {
+                detailsLoad.cancel();
                 detailsBox.setVisible(false);
                 currentDisplayedHerd = null;
             }
         });
+
+        // Scrolled to the bottom -> fetch the next page of herds
+        herdList.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : herdList.lookupAll(".scroll-bar"))
+                if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL)
+                    bar.valueProperty().addListener((o, oldVal, newVal) -> {
+                        if (newVal.doubleValue() >= bar.getMax())
+                            loadNextPage();
+                    });
+        });
+    }
+
+    private void loadNextPage() {
+        // the scroll bar fires many times at the bottom, one fetch is enough
+        if (lastLoaded == null || !lastLoaded.hasNext() || pageLoad.isLoading())
+            return;
+
+        pageLoad.start(async.herdSummaries(lastLoaded.nextCursor()),
+                page -> {
+                    lastLoaded = page;
+                    herdsModel.addAll(page.getElementsOnPage());
+                },
+                e -> showAlert("Failed to load herds: " + e.getMessage()));
     }
 
     @Override
@@ -77,11 +129,13 @@ public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
 
             switch (event.type()) {
                 case ADD:
-                    herdsModel.add(data);
+                    // new herds have the highest id, a later page will bring it otherwise
+                    if (lastLoaded == null || !lastLoaded.hasNext())
+                        herdsModel.add(new HerdSummary(data.getId(), data.getName(), data.size(), 0, 0));
                     break;
 
                 case DELETE:
-                    herdsModel.removeIf(h -> h.getId().equals(data.getId()));
+                    herdsModel.removeIf(h -> h.id().equals(data.getId()));
 
                     if (isCurrentSelection(data.getId())) {
                         detailsBox.setVisible(false);
@@ -93,7 +147,9 @@ public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
                 case UPDATE:
                     int idx = findIndexById(data.getId());
                     if (idx != -1) {
-                        herdsModel.set(idx, data);
+                        HerdSummary old = herdsModel.get(idx);
+                        herdsModel.set(idx, new HerdSummary(old.id(), data.getName(), old.memberCount(),
+                                old.sumSpeed(), old.sumResistance()));
 
                         if (wasSelected) {
                             herdList.getSelectionModel().select(idx);
@@ -105,48 +161,61 @@ public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
         });
     }
 
+    // Patches the listed herd and the open details instead of reloading them
+    private void onMembershipChange(MembershipChange change) {
+        Platform.runLater(() -> {
+            int idx = findIndexById(change.herdId());
+            if (idx != -1) {
+                boolean selected = isCurrentSelection(change.herdId());
+                herdsModel.set(idx, change.aggregate());
+                if (selected)
+                    herdList.getSelectionModel().select(idx);
+            }
+
+            if (currentDisplayedHerd == null || !currentDisplayedHerd.getId().equals(change.herdId()))
+                return;
+
+            change.applyTo(currentDisplayedHerd);
+
+            if (change.kind() == MembershipChange.Kind.ADDED) {
+                if (membersModel.stream().noneMatch(d -> d.getId().equals(change.duckId())))
+                    membersModel.add(change.duck());
+            } else
+                membersModel.removeIf(d -> d.getId().equals(change.duckId()));
+
+            showStats(change.aggregate().performance());
+            updateActionButtonState(currentDisplayedHerd);
+        });
+    }
+
     private int findIndexById(Long id) {
         for (int i = 0; i < herdList.getItems().size(); ++i)
-            if (herdList.getItems().get(i).getId().equals(id))
+            if (herdList.getItems().get(i).id().equals(id))
                 return i;
         return -1;
     }
 
     private boolean isCurrentSelection(Long herdId) {
-        Herd<Duck> selected = herdList.getSelectionModel().getSelectedItem();
-        return selected != null && selected.getId().equals(herdId);
+        HerdSummary selected = herdList.getSelectionModel().getSelectedItem();
+        return selected != null && selected.id().equals(herdId);
     }
 
-    private void fetchAndShowDetails(Herd<Duck> herd) {
+    // Members are only loaded once a herd is opened
+    private void fetchAndShowDetails(HerdSummary herd) {
         detailsBox.setVisible(true);
-        lblHerdName.setText(herd.getName());
+        lblHerdName.setText(herd.name());
         lblStats.setText("Loading stats...");
 
         // Clear list immediately to show we are working
         memberList.getItems().clear();
 
-        // Create a background task
-        Task<Void> task = new Task<>() {
-            @Override
-            protected Void call() {
-                // This runs background thread
-                // 1. Force a fresh fetch from DB
-                Herd<Duck> freshHerd = herdService.findById(herd.getId());
-
-                // 3. Update UI on the JavaFx Application Thread
-                Platform.runLater(() -> updateDetailsUi(freshHerd));
-
-                return null;
-            }
-        };
-
-        // Handle errors
-        task.setOnFailed(e -> {
-            lblStats.setText("Error loading data");
-            showAlert("Failed to load herd details: " + task.getException().getMessage());
-        });
-
-        new Thread(task).start();
+        // Force a fresh fetch from DB
+        detailsLoad.start(async.herd(herd.id()),
+                this::updateDetailsUi,
+                e -> {
+                    lblStats.setText("Error loading data");
+                    showAlert("Failed to load herd details: " + e.getMessage());
+                });
     }
 
     private void updateDetailsUi(Herd<Duck> herd) {
@@ -154,14 +223,17 @@ public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
 
         lblHerdName.setText(herd.getName());
 
-        Performance stats = herd.getAvgPerformance();
-        lblStats.setText(String.format("Avg Speed: %.2f | Avg Res: %.2f",
-                stats.avgSpeed(), stats.avgResistance()));
+        showStats(herd.getAvgPerformance());
 
         membersModel.setAll(herd.getMembers());
         updateActionButtonState(herd);
     }
 
+    private void showStats(Performance stats) {
+        lblStats.setText(String.format("Avg Speed: %.2f | Avg Res: %.2f",
+                stats.avgSpeed(), stats.avgResistance()));
+    }
+
     private boolean isMemberOf(Herd<Duck> herd) {
         if (herd == null || herd.getMembers() == null)
             return false;
@@ -194,18 +266,17 @@ public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
 
         if (selectedHerd == null || !isDuck) return;
 
-        try {
-            boolean isMember = isMemberOf(selectedHerd);
-
-            if (isMember)
-                herdService.deleteDuck(selectedHerd.getId(), currentUser.getId());
-            else {
-                herdService.addDuck(selectedHerd.getId(), (Duck) currentUser);
-                // System.out.println(currentUser.getUsername() + " joined herd " + selectedHerd.getName());
-            }
-        } catch (Exception e) {
-            new Alert(Alert.AlertType.ERROR, "Action failed: " + e.getMessage()).show();
-        }
+        // the change itself comes back through onMembershipChange
+        actionBtn.setDisable(true);
+        boolean isMember = isMemberOf(selectedHerd);
+        LoadSlot.onFx(isMember
+                        ? async.leaveHerd(selectedHerd.getId(), currentUser.getId())
+                        : async.joinHerd(selectedHerd.getId(), (Duck) currentUser),
+                done -> actionBtn.setDisable(false),
+                e -> {
+                    actionBtn.setDisable(false);
+                    new Alert(Alert.AlertType.ERROR, "Action failed: " + e.getMessage()).show();
+                });
     }
 
     private void showAlert(String msg) {
@@ -224,22 +295,19 @@ public class HerdController implements Observer<EntityChangeEvent<Herd<Duck>>> {
         if (name.isBlank())
             return;
 
-        try {
-            Herd<Duck> newHerd = herdService.createHerd(name);
-
-            herdService.addDuck(newHerd.getId(), (Duck) currentUser);
-
-            newHerdName.clear();
-
-            // herdList.getSelectionModel().select(newHerd); -> it's kinda async
-        } catch (Exception e) {
-            showAlert("Creation Failed: " + e.getMessage());
-        }
+        LoadSlot.onFx(async.createHerd(name, (Duck) currentUser),
+                // herdList.getSelectionModel().select(newHerd); -> it's kinda async
+                newHerd -> newHerdName.clear(),
+                e -> showAlert("Creation Failed: " + e.getMessage()));
     }
 
     public void cleanup() {
-        if (herdService != null)
+        pageLoad.cancel();
+        detailsLoad.cancel();
+        if (herdService != null) {
             herdService.removeObserver(this);
+            herdService.memberships().removeObserver(membershipObserver);
+        }
     }
 }
 
@@ -14,14 +14,17 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
+import scs.app.AsyncServices;
 import scs.domain.event.Event;
 import scs.domain.event.RaceEvent;
 import scs.domain.group.Herd;
+import scs.domain.group.HerdSummary;
+import scs.domain.group.MembershipChange;
 import scs.domain.user.Duck;
 import scs.domain.user.User;
 import scs.service.EventService;
 import scs.service.HerdService;
-import scs.service.social.UserService;
+import scs.ui.LoadSlot;
 import scs.utilities.errors.ValidationException;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observable;
@@ -32,32 +35,45 @@ import java.util.List;
 
 public class RaceController implements Observer<EntityChangeEvent<?>> {
     @FXML private ComboBox<Event> eventSelector;
-    @FXML private ComboBox<Herd<Duck>> herdSelector;
+    @FXML private ComboBox<HerdSummary> herdSelector;
     @FXML private TextField txtLanes;
     @FXML private VBox lanesContainer;  // DYNAMIC CONTAINER
     @FXML private Label statusLabel;
 
     private final ObservableList<Event> eventsModel = FXCollections.observableArrayList();
-    private final ObservableList<Herd<Duck>> herdsModel = FXCollections.observableArrayList();
+    private final ObservableList<HerdSummary> herdsModel = FXCollections.observableArrayList();
 
     private HerdService herdService;
     private EventService eventService;
+    private AsyncServices async;
     private User currentUser;
 
+    private final LoadSlot eventsLoad = new LoadSlot();
+    private final LoadSlot herdsLoad = new LoadSlot();
+    // a second Run click while the herd is still loading replaces the first
+    private final LoadSlot raceLoad = new LoadSlot();
+
     private List<TextField> laneInputs = new ArrayList<>();
 
-    public void setServices(HerdService hs, EventService es, User loggedIn) {
+    private final Observer<MembershipChange> membershipObserver = this::onMembershipChange;
+
+    public void setServices(HerdService hs, EventService es, AsyncServices async, User loggedIn) {
         this.herdService = hs;
         this.eventService = es;
+        this.async = async;
         this.currentUser = loggedIn;
 
         ((Observable) this.herdService).addObserver(this);
         ((Observable) this.eventService).addObserver(this);
+        this.herdService.memberships().addObserver(membershipObserver);
 
         initUi();
 
-        eventsModel.setAll(eventService.getAll());
-        herdsModel.setAll(herdService.getAll());
+        eventsLoad.start(async.events(), eventsModel::setAll,
+                e -> statusLabel.setText("Failed to load events: " + e.getMessage()));
+        // members are fetched for the chosen herd only, when the race starts
+        herdsLoad.start(async.herdSummaries(), herdsModel::setAll,
+                e -> statusLabel.setText("Failed to load herds: " + e.getMessage()));
     }
 
     private void initUi() {
@@ -78,12 +94,12 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
 
         herdSelector.setConverter(new StringConverter<>() {
             @Override
-            public String toString(Herd<Duck> herd) {
-                return (herd == null) ? "" : herd.getName();
+            public String toString(HerdSummary herd) {
+                return (herd == null) ? "" : herd.name();
             }
 
             @Override
-            public Herd<Duck> fromString(String s) {
+            public HerdSummary fromString(String s) {
                 return null;
             }
         });
@@ -129,11 +145,11 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
         Herd<Duck> data = event.data();
         switch (event.type()) {
             case ADD:
-                herdsModel.add(data);
+                herdsModel.add(new HerdSummary(data.getId(), data.getName(), data.size(), 0, 0));
                 break;
 
             case DELETE:
-                herdsModel.removeIf(h -> h.getId().equals(data.getId()));
+                herdsModel.removeIf(h -> h.id().equals(data.getId()));
                 if (isSelected(herdSelector, data.getId()))
                     herdSelector.getSelectionModel().clearSelection();
                 break;
@@ -141,7 +157,9 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
             case UPDATE:
                 int idx = findIndexByIdHerds(herdsModel, data.getId());
                 if (idx != -1) {
-                    herdsModel.set(idx, data);
+                    HerdSummary old = herdsModel.get(idx);
+                    herdsModel.set(idx, new HerdSummary(old.id(), data.getName(), old.memberCount(),
+                            old.sumSpeed(), old.sumResistance()));
                     if (isSelected(herdSelector, data.getId()))
                         herdSelector.getSelectionModel().select(idx);
                 }
@@ -149,6 +167,18 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
         }
     }
 
+    private void onMembershipChange(MembershipChange change) {
+        Platform.runLater(() -> {
+            int idx = findIndexByIdHerds(herdsModel, change.herdId());
+            if (idx != -1) {
+                boolean selected = isSelected(herdSelector, change.herdId());
+                herdsModel.set(idx, change.aggregate());
+                if (selected)
+                    herdSelector.getSelectionModel().select(idx);
+            }
+        });
+    }
+
     private int findIndexByEventId(ObservableList<Event> list, Long id) {
         for (int i = 0; i < list.size(); ++i)
             if (list.get(i).getId().equals(id))
@@ -156,9 +186,9 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
         return -1;
     }
 
-    private int findIndexByIdHerds(ObservableList<Herd<Duck>> list, long id) {
+    private int findIndexByIdHerds(ObservableList<HerdSummary> list, long id) {
         for (int i = 0; i < list.size(); ++i)
-            if (list.get(i).getId().equals(id))
+            if (list.get(i).id().equals(id))
                 return i;
         return -1;
     }
@@ -167,7 +197,7 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
         Object selected = box.getValue();
         return switch (selected) {
             case Event e -> e.getId().equals(id);
-            case Herd<?> h -> h.getId().equals(id);
+            case HerdSummary h -> h.id().equals(id);
             case null, default -> false;
         };
 
@@ -201,7 +231,7 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
     @FXML
     public void onRunRace() {
         Event selectedEvent = eventSelector.getValue();
-        Herd<Duck> selectedHerd = herdSelector.getValue();
+        HerdSummary selectedHerd = herdSelector.getValue();
 
         if (selectedHerd == null || selectedEvent == null) {
             statusLabel.setText("Please select both a Spectator Event and a Racing Herd.");
@@ -213,36 +243,42 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
             return;
         }
 
+        // read inputs
+        double[] lanes = new double[laneInputs.size()];
         try {
-            // read inputs
-            double[] lanes = new double[laneInputs.size()];
             for (int i = 0; i < laneInputs.size(); ++i)
                 lanes[i] = Double.parseDouble(laneInputs.get(i).getText());
+        } catch (NumberFormatException e) {
+            statusLabel.setText("Invalid distance value in lanes.");
+            return;
+        }
 
-            // prepare data
-            List<Duck> allMembers = herdService.members(selectedHerd.getId());
-
-            // Filter swimmers
-            List<Duck> qualifiedRacers = allMembers.stream()
-                    .filter(RaceEvent::canSwim)
-                    .toList();
+        // prepare data
+        statusLabel.setText("Loading herd...");
+        raceLoad.start(async.herdMembers(selectedHerd.id()),
+                allMembers -> startRace(selectedEvent, allMembers, lanes),
+                e -> {
+                    e.printStackTrace();
+                    statusLabel.setText("Error: " + e.getMessage());
+                });
+    }
 
-            if (qualifiedRacers.size() < lanes.length) {
-                statusLabel.setText("Not enough swimming ducks in herd for " + lanes.length + " lanes." +
-                                    "(Herd has " + allMembers.size() + ", but only " + qualifiedRacers.size() + " can swim.");
-                return;
-            }
+    private void startRace(Event event, List<Duck> allMembers, double[] lanes) {
+        // Filter swimmers
+        List<Duck> qualifiedRacers = allMembers.stream()
+                .filter(RaceEvent::canSwim)
+                .toList();
 
-            List<Duck> actualRacers = qualifiedRacers.subList(0, lanes.length);
+        if (qualifiedRacers.size() < lanes.length) {
+            statusLabel.setText("Not enough swimming ducks in herd for " + lanes.length + " lanes." +
+                                "(Herd has " + allMembers.size() + ", but only " + qualifiedRacers.size() + " can swim.");
+            return;
+        }
 
-            openSimulationWindow(selectedEvent, actualRacers, lanes);
+        statusLabel.setText("");
+        List<Duck> actualRacers = qualifiedRacers.subList(0, lanes.length);
 
-        } catch (ValidationException e) {
-            statusLabel.setText("Invalid distance value in lanes.");
-        } catch (Exception e) {
-            e.printStackTrace();
-            statusLabel.setText("Error: " + e.getMessage());
-        }
+        openSimulationWindow(event, actualRacers, lanes);
     }
 
     private void openSimulationWindow(Event event, List<Duck> racers, double[] distances) {
@@ -252,7 +288,7 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
 
             RaceSimulationController ctrl = loader.getController();
 
-            ctrl.initRace(event, racers, distances, eventService);
+            ctrl.initRace(event, racers, distances, async);
 
             Stage stage = new Stage();
             stage.setTitle("LIVE RACE: " + event.getName());
@@ -268,7 +304,13 @@ public class RaceController implements Observer<EntityChangeEvent<?>> {
     }
 
     public void cleanup() {
-        if (herdService != null) ((Observable) herdService).removeObserver(this);
-        if (eventService != null) ((Observable) herdService).removeObserver(this);
+        eventsLoad.cancel();
+        herdsLoad.cancel();
+        raceLoad.cancel();
+        if (herdService != null) {
+            ((Observable) herdService).removeObserver(this);
+            herdService.memberships().removeObserver(membershipObserver);
+        }
+        if (eventService != null) ((Observable) eventService).removeObserver(this);
     }
 }
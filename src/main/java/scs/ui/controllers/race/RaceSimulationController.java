@@ -1,7 +1,6 @@
 package scs.ui.controllers.race;
 
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
@@ -10,13 +9,14 @@ import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import scs.app.AsyncServices;
 import scs.domain.event.Event;
+import scs.domain.event.RaceEngine;
+import scs.domain.event.RaceEvent;
+import scs.domain.event.RaceSimulation;
 import scs.domain.user.Duck;
-import scs.service.EventService;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class RaceSimulationController {
     @FXML
@@ -33,56 +33,19 @@ public class RaceSimulationController {
     private Event currentEvent;
     private List<Duck> racers;
     private double[] laneDistances;
-    private EventService eventService;
+    private AsyncServices async;
 
-    private final List<Thread> activeThreads = new ArrayList<>();
-    private final AtomicBoolean raceFinished = new AtomicBoolean(false);
+    // one scheduler for every open race window
+    private static final RaceEngine ENGINE = new RaceEngine(Platform::runLater);
 
-    private static class RaceTask extends Task<Double> {
-        private final Duck duck;
-        private final double totalDistance;
+    private RaceEngine.Handle running;
+    private boolean winnerDeclared;
 
-        public RaceTask(Duck duck, double totalDistance) {
-            this.duck = duck;
-            this.totalDistance = totalDistance;
-        }
-
-        @Override
-        protected Double call() throws Exception {
-            double currentDist = 0;
-            double currentSpeed = duck.getSpeed();
-            double resistance = duck.getResistance();
-
-            long startTime = System.currentTimeMillis();
-
-            while (currentDist < totalDistance) {
-                if (isCancelled())
-                    break;
-
-                Thread.sleep(50);
-
-                // Move
-                double move = currentSpeed / 5.0;
-                currentDist += move;
-
-                // Fatigue
-                double fatigue = (10.0 - Math.min(resistance, 10.0)) / 200.0;
-                currentSpeed = Math.max(1.0, currentSpeed - fatigue);
-
-                updateProgress(currentDist, totalDistance);
-                updateMessage(String.format("%.1fm / %.0fm", Math.min(currentDist, totalDistance), totalDistance));
-            }
-
-            long endTime = System.currentTimeMillis();
-            return (endTime - startTime) / 1000.0; // seconds
-        }
-    }
-
-    public void initRace(Event event, List<Duck> racers, double[] distances, EventService service) {
+    public void initRace(Event event, List<Duck> racers, double[] distances, AsyncServices async) {
         this.currentEvent = event;
         this.racers = racers;
         this.laneDistances = distances;
-        this.eventService = service;
+        this.async = async;
 
         raceTitleLabel.setText("RACE: " + event.getName().toUpperCase());
         setupTrackVisuals();
@@ -119,56 +82,66 @@ public class RaceSimulationController {
         startBtn.setDisable(true);
         winnerLabel.setText("RACE STARTED!");
 
-        for (int i = 0; i < racers.size(); ++i) {
-            Duck duck = racers.get(i);
-            double distance = laneDistances[i];
+        RaceSimulation simulation = new RaceSimulation(racers, laneDistances);
+        running = ENGINE.start(simulation, new RaceEngine.Listener() {
+            @Override
+            public void onFrame(RaceSimulation.Frame frame) {
+                showFrame(frame);
+            }
 
+            @Override
+            public void onFinish(RaceEvent.Result result) {
+                saveResult(result);
+            }
+        });
+    }
+
+    // Runs on the FX thread, at most once per engine tick
+    private void showFrame(RaceSimulation.Frame frame) {
+        for (int i = 0; i < racers.size(); ++i) {
             HBox laneBox = (HBox) trackContainer.getChildren().get(i);
             ProgressBar bar = (ProgressBar) laneBox.getChildren().get(1);
             Label statLbl = (Label) laneBox.getChildren().get(2);
 
-            RaceTask task = new RaceTask(duck, distance);
-
-            bar.progressProperty().bind(task.progressProperty());
-
-            task.messageProperty().addListener((obs, old, msg) -> {
-                Platform.runLater(() -> statLbl.setText(msg));
-            });
-
-            task.setOnSucceeded(e -> {
-                if (raceFinished.compareAndSet(false, true))
-                    declareWinner(duck, task.getValue());
-            });
+            bar.setProgress(frame.progress(i));
+            statLbl.setText((int) Math.min(frame.covered()[i], frame.distances()[i]) + "m / " + (int) frame.distances()[i] + "m");
+        }
 
-            Thread th = new Thread(task);
-            th.setDaemon(true);     // they die if app closes
-            activeThreads.add(th);
-            th.start();
+        int leader = frame.leader();
+        if (leader != -1 && !winnerDeclared) {
+            winnerDeclared = true;
+            declareWinner(racers.get(leader), frame.finishTimes()[leader]);
         }
     }
 
+    // Off the FX thread, the leaderboard is updated in the same transaction
+    private void saveResult(RaceEvent.Result result) {
+        async.recordRace(currentEvent.getId(), currentEvent.getName(), result)
+                .exceptionally(e -> {
+                    System.err.println("Failed to save race result: " + e.getMessage());
+                    return null;
+                });
+    }
+
     private void declareWinner(Duck winner, double time) {
         String timeStr = String.format("%.2f", time);
 
-        Platform.runLater(() -> {
-            winnerLabel.setText("WINNER: " + winner.getUsername());
+        winnerLabel.setText("WINNER: " + winner.getUsername());
 
-            String msg = "RACE UPDATE: " + winner.getUsername() +
-                         " has won the '" + currentEvent.getName() +
-                         "' race in " + timeStr + "s!";
+        String msg = "RACE UPDATE: " + winner.getUsername() +
+                     " has won the '" + currentEvent.getName() +
+                     "' race in " + timeStr + "s!";
 
-            try {
-                eventService.notifySubscribers(currentEvent.getId(), msg);
-            } catch (Exception e) {
-                System.err.println("Failed to send notification: " + e.getMessage());
-            }
-        });
+        async.notifySubscribers(currentEvent.getId(), msg)
+                .exceptionally(e -> {
+                    System.err.println("Failed to send notification: " + e.getMessage());
+                    return null;
+                });
     }
 
     public void stopRace() {
-        for (Thread t: activeThreads)
-            if (t.isAlive())
-                t.interrupt();
+        if (running != null)
+            running.cancel();
     }
 
     private String getColorForDuck(int index) {
@@ -5,28 +5,33 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
+import scs.app.AsyncServices;
 import scs.domain.interactions.Friendship;
 import scs.domain.interactions.Message;
-import scs.domain.user.Duck;
 import scs.domain.user.User;
+import scs.domain.user.UserSummary;
 import scs.service.friend.FriendshipService;
 import scs.service.social.MessageService;
 import scs.service.social.UserService;
+import scs.ui.LoadSlot;
 import scs.utilities.events.ChangeEventType;
 import scs.utilities.events.EntityChangeEvent;
+import scs.utilities.observer.Observer;
+import scs.utilities.paging.MessageCursor;
+import scs.utilities.paging.MessagePage;
 
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 public class ChatController {
     @FXML
     private Label lblUser;
     @FXML
-    private ListView<User> friendsList;
+    private ListView<UserSummary> friendsList;
     @FXML
     private VBox chatPanel;
     @FXML
@@ -38,25 +43,38 @@ public class ChatController {
     @FXML
     private TextArea inputField;
 
-    private final ObservableList<User> friendsModel = FXCollections.observableArrayList();
+    private final ObservableList<UserSummary> friendsModel = FXCollections.observableArrayList();
     private final ObservableList<Message> messagesModel = FXCollections.observableArrayList();
 
     private MessageService messageService;
     private UserService userService;
     private FriendshipService friendshipService;
+    private AsyncServices async;
 
     private User currentUser;
-    private User currentPartner;
+    private UserSummary currentPartner;
     private Message replyTarget = null;
 
-    public void setServices(MessageService ms, UserService us, FriendshipService fs) {
+    private final Observer<EntityChangeEvent<Message>> messageObserver = this::onMessageEvent;
+    private final Observer<EntityChangeEvent<Friendship>> friendshipObserver = this::onFriendshipEvent;
+    private final Observer<EntityChangeEvent<User>> userObserver = this::onUserEvent;
+
+    private static final int HISTORY_PAGE_SIZE = 50;
+    // older history of the open chat, loaded when the list is scrolled to the top
+    private MessagePage oldestLoaded;
+
+    private final LoadSlot friendsLoad = new LoadSlot();
+    // history of the open chat, picking another friend drops what is still loading for the last one
+    private final LoadSlot historyLoad = new LoadSlot();
+
+    public void setServices(MessageService ms, UserService us, FriendshipService fs, AsyncServices async) {
         this.messageService = ms;
         this.userService = us;
         this.friendshipService = fs;
+        this.async = async;
 
-        this.messageService.addObserver(this::onMessageEvent);
-        this.friendshipService.addObserver(this::onFriendshipEvent);
-        this.userService.addObserver(this::onUserEvent);
+        // friend renames and deletions can come from any user, the rest is subscribed per user in setLoggedInUser
+        this.userService.addObserver(userObserver);
 
         initLogic();
     }
@@ -68,10 +86,11 @@ public class ChatController {
                 return;
 
             long me = currentUser.getId();
-            long partner = currentPartner.getId();
+            long partner = currentPartner.id();
             long sender = msg.getFrom().getId();
 
-            boolean incoming = (sender == partner && msg.getTo().stream().anyMatch(u -> u.getId() == me));
+            // subscribed by our id, so a message from the partner is addressed to us
+            boolean incoming = (sender == partner && sender != me);
             boolean outgoing = (sender == me && msg.getTo().stream().anyMatch(u -> u.getId() == partner));
 
             boolean isBot = (sender == UserService.RACE_BOT_ID && partner == UserService.RACE_BOT_ID);
@@ -88,21 +107,24 @@ public class ChatController {
         if (currentUser == null) return;
         Friendship f = event.data();
 
-        if (!f.involves(currentUser.getId()))
+        if (event.type() == ChangeEventType.ADD) {
+            Long friendId = f.user1().equals(currentUser.getId()) ? f.user2() : f.user1();
+
+            LoadSlot.onFx(async.userSummaries(List.of(friendId)),
+                    found -> {
+                        if (friendsModel.stream().noneMatch(u -> u.id().equals(friendId)))
+                            friendsModel.addAll(found);
+                    },
+                    e -> System.err.println("Failed to load new friend: " + e.getMessage()));
             return;
+        }
 
         Platform.runLater(() -> {
-            if (event.type() == ChangeEventType.ADD) {
-                Long friendId = f.user1().equals(currentUser.getId()) ? f.user2() : f.user1();
-
-                User newFriend = userService.findById(friendId);
-                if (newFriend != null)
-                    friendsModel.add(newFriend);
-            } else if (event.type() == ChangeEventType.DELETE) {
+            if (event.type() == ChangeEventType.DELETE) {
                 Long friendId = f.user1().equals(currentUser.getId()) ? f.user2() : f.user1();
-                friendsModel.removeIf(u -> u.getId().equals(friendId));
+                friendsModel.removeIf(u -> u.id().equals(friendId));
 
-                if (currentPartner != null && currentPartner.getId().equals(friendId)) {
+                if (currentPartner != null && currentPartner.id().equals(friendId)) {
                     chatPanel.setVisible(false);
                     currentPartner = null;
                 }
@@ -115,9 +137,9 @@ public class ChatController {
             User u = event.data();
             switch (event.type()) {
                 case DELETE:
-                    boolean removed = friendsModel.removeIf(friend -> friend.getId().equals(u.getId()));
+                    boolean removed = friendsModel.removeIf(friend -> friend.id().equals(u.getId()));
 
-                    if (removed && currentPartner != null && currentPartner.getId().equals(u.getId())) {
+                    if (removed && currentPartner != null && currentPartner.id().equals(u.getId())) {
                         chatPanel.setVisible(false);
                         currentPartner = null;
                         messageList.getItems().clear();
@@ -125,14 +147,15 @@ public class ChatController {
                     break;
 
                 case UPDATE:
+                    UserSummary summary = UserSummary.of(u);
                     for (int i = 0; i < friendsModel.size(); ++i)
-                        if (friendsModel.get(i).getId().equals(u.getId())) {
-                            friendsModel.set(i, u);
+                        if (friendsModel.get(i).id().equals(u.getId())) {
+                            friendsModel.set(i, summary);
                             break;
                         }
 
-                    if (currentPartner != null && currentPartner.getId().equals(u.getId())) {
-                        currentPartner = u;
+                    if (currentPartner != null && currentPartner.id().equals(u.getId())) {
+                        currentPartner = summary;
                         headerLabel.setText("Chat with " + u.getUsername());
                     }
 
@@ -142,7 +165,13 @@ public class ChatController {
     }
 
     public void setLoggedInUser(User user) {
+        if (currentUser != null)
+            unsubscribeFromUser();
+
         this.currentUser = user;
+        messageService.subscribe(user.getId(), messageObserver);
+        friendshipService.subscribe(user.getId(), friendshipObserver);
+
         lblUser.setText("Your friends:");
         initialLoadFriends();
     }
@@ -159,6 +188,16 @@ public class ChatController {
             }
         });
 
+        // Scrolled to the top -> fetch the page before the oldest loaded message
+        messageList.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : messageList.lookupAll(".scroll-bar"))
+                if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL)
+                    bar.valueProperty().addListener((o, oldVal, newVal) -> {
+                        if (newVal.doubleValue() <= bar.getMin())
+                            loadOlderMessages();
+                    });
+        });
+
         // When message clicked, set as reply
         messageList.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
@@ -215,12 +254,12 @@ public class ChatController {
 
         friendsList.setCellFactory(param -> new ListCell<>() {
             @Override
-            protected void updateItem(User item, boolean empty) {
+            protected void updateItem(UserSummary item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null)
                     setText(null);
                 else
-                    setText(item.getUsername() + ", id: " + item.getId() + (item instanceof Duck ? " - Duck" : " - Person"));
+                    setText(item.toString());
             }
         });
     }
@@ -229,34 +268,50 @@ public class ChatController {
         if (currentUser == null)
             return;
 
-        Set<Long> friendIds = friendshipService.getFriendsOf(currentUser.getId());
-
-        List<User> friendList = new ArrayList<>();
-
-        if (!friendIds.isEmpty())
-            friendList.addAll(userService.findUsersByIds(friendIds));
-
-        User raceBot = userService.findById(UserService.RACE_BOT_ID);
-        if (raceBot != null) {
-            boolean alreadyThere = friendList.stream()
-                    .anyMatch(u -> u.getId().equals(UserService.RACE_BOT_ID));
-
-            if (!alreadyThere) {
-                friendList.addFirst(raceBot);
-            }
-        }
-
-        friendsModel.setAll(friendList);
+        Long me = currentUser.getId();
+        friendsLoad.start(async.chatFriends(me),
+                friendsModel::setAll,
+                e -> new Alert(Alert.AlertType.ERROR, "Failed to load friends: " + e.getMessage()).show());
     }
 
     private void openChat() {
         chatPanel.setVisible(true);
-        headerLabel.setText("Chat with " + currentPartner.getUsername());
+        headerLabel.setText("Chat with " + currentPartner.username());
         onClearReply();
 
-        List<Message> messages = messageService.getConversation(currentUser.getId(), currentPartner.getId());
-        messagesModel.setAll(messages);
-        messageList.scrollTo(messages.size() - 1);
+        oldestLoaded = null;
+        messagesModel.clear();
+        historyLoad.start(async.conversation(currentUser.getId(), currentPartner.id(),
+                        MessageCursor.latest(HISTORY_PAGE_SIZE)),
+                page -> {
+                    // messages that arrived while the history was loading stay below it
+                    List<Message> arrived = List.copyOf(messagesModel);
+                    oldestLoaded = page;
+                    messagesModel.setAll(page.getMessages());
+                    for (Message m : arrived)
+                        if (page.getMessages().stream().noneMatch(old -> old.getId().equals(m.getId())))
+                            messagesModel.add(m);
+                    messageList.scrollTo(messagesModel.size() - 1);
+                },
+                e -> new Alert(Alert.AlertType.ERROR, "Failed to load messages: " + e.getMessage()).show());
+    }
+
+    private void loadOlderMessages() {
+        // the scroll bar fires many times at the top, one fetch is enough
+        if (currentPartner == null || oldestLoaded == null || !oldestLoaded.hasOlder() || historyLoad.isLoading())
+            return;
+
+        historyLoad.start(async.conversation(currentUser.getId(), currentPartner.id(), oldestLoaded.olderCursor()),
+                page -> {
+                    oldestLoaded = page;
+                    if (page.getMessages().isEmpty())
+                        return;
+
+                    messagesModel.addAll(0, page.getMessages());
+                    // keep the message that was on top in view
+                    messageList.scrollTo(page.getMessages().size());
+                },
+                e -> new Alert(Alert.AlertType.ERROR, "Failed to load messages: " + e.getMessage()).show());
     }
 
     @FXML
@@ -266,10 +321,16 @@ public class ChatController {
         messageList.getSelectionModel().clearSelection();
     }
 
+    private void unsubscribeFromUser() {
+        messageService.unsubscribe(currentUser.getId(), messageObserver);
+        friendshipService.unsubscribe(currentUser.getId(), friendshipObserver);
+    }
+
     public void cleanup() {
-        if (messageService != null) messageService.removeObserver(this::onMessageEvent);
-        if (friendshipService != null) friendshipService.removeObserver(this::onFriendshipEvent);
-        if (userService != null) userService.removeObserver(this::onUserEvent);
+        friendsLoad.cancel();
+        historyLoad.cancel();
+        if (currentUser != null && messageService != null) unsubscribeFromUser();
+        if (userService != null) userService.removeObserver(userObserver);
     }
 
     @FXML
@@ -277,15 +338,18 @@ public class ChatController {
         String text = inputField.getText();
         if (text.isEmpty()) return;
 
-        try {
-            Long replyId = (replyTarget != null) ? replyTarget.getId() : null;
-            messageService.sendMessage(currentUser.getId(), List.of(currentPartner.getId()), text, replyId);
-
-            inputField.clear();
-            onClearReply();
-        } catch (Exception e) {
-            new Alert(Alert.AlertType.ERROR, e.getMessage()).show();
-        }
+        Message replyTo = replyTarget;
+        Long replyId = (replyTo != null) ? replyTo.getId() : null;
+        // the message shows up through onMessageEvent once it is committed;
+        // the draft stays put until then so a failed send can be retried
+        LoadSlot.onFx(async.sendMessage(currentUser.getId(), List.of(currentPartner.id()), text, replyId),
+                saved -> {
+                    if (text.equals(inputField.getText()))
+                        inputField.clear();
+                    if (replyTarget == replyTo)
+                        onClearReply();
+                },
+                e -> new Alert(Alert.AlertType.ERROR, e.getMessage()).show());
     }
 }
 
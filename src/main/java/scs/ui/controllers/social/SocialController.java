@@ -4,19 +4,19 @@ import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.*;
+import scs.app.AsyncServices;
 import scs.domain.interactions.FriendRequest;
 import scs.domain.interactions.RequestStatus;
 import scs.domain.user.User;
-import scs.service.friend.CommunityService;
-import scs.service.friend.FriendshipService;
-import scs.service.social.UserService;
 
 import javafx.fxml.FXML;
 import scs.service.friend.RequestService;
+import scs.ui.LoadSlot;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observer;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 public class SocialController implements Observer<EntityChangeEvent<FriendRequest>> {
@@ -27,20 +27,21 @@ public class SocialController implements Observer<EntityChangeEvent<FriendReques
 
     private final ObservableList<FriendRequest> requestsModel = FXCollections.observableArrayList();
 
-    private UserService users;
-    private FriendshipService friends;
-    private CommunityService community;
+    // only for its change events, the calls go through async
     private RequestService requestService;
+    private AsyncServices async;
     private User currentUser;
 
-    public void setServices(UserService u, FriendshipService f, CommunityService c, RequestService r, User loggedIn) {
-        this.users = u;
-        this.friends = f;
-        this.community = c;
+    private final LoadSlot requestsLoad = new LoadSlot();
+    // pressing Stats again while the last run is going only reports the newest one
+    private final LoadSlot statsLoad = new LoadSlot();
+
+    public void setServices(RequestService r, AsyncServices async, User loggedIn) {
         this.requestService = r;
+        this.async = async;
         this.currentUser = loggedIn;
 
-        this.requestService.addObserver(this);
+        this.requestService.subscribe(currentUser.getId(), this);
 
         initRequestList();
         initialLoad();
@@ -56,11 +57,8 @@ public class SocialController implements Observer<EntityChangeEvent<FriendReques
         Platform.runLater(() -> {
             FriendRequest req = event.data();
 
+            // subscribed by our id, so the request is either to us or from us
             boolean isForMe = req.getTo().getId().equals(currentUser.getId());
-            boolean isFromMe = req.getFrom().getId().equals(currentUser.getId());
-
-            if (!isForMe && !isFromMe)
-                return;
 
             switch (event.type()) {
                 case ADD:
@@ -102,8 +100,8 @@ public class SocialController implements Observer<EntityChangeEvent<FriendReques
         if (currentUser == null)
             return;
 
-        List<FriendRequest> pending = requestService.getPendingRequests(currentUser.getId());
-        requestsModel.setAll(pending);
+        requestsLoad.start(async.pendingRequests(currentUser.getId()), requestsModel::setAll,
+                e -> log("Error loading requests: " + e.getMessage()));
     }
 
     @FXML
@@ -114,12 +112,9 @@ public class SocialController implements Observer<EntityChangeEvent<FriendReques
             return;
         }
 
-        try {
-            requestService.acceptRequest(selected);
-            log("Accepted request from " + selected.getFrom().getUsername());
-        } catch (Exception e) {
-            log("Error: " + e.getMessage());
-        }
+        LoadSlot.onFx(async.acceptRequest(selected),
+                done -> log("Accepted request from " + selected.getFrom().getUsername()),
+                e -> log("Error: " + e.getMessage()));
     }
 
     @FXML
@@ -128,33 +123,32 @@ public class SocialController implements Observer<EntityChangeEvent<FriendReques
         if (selected == null)
             return;
 
-        try {
-            requestService.rejectRequest(selected);
-            log("Rejected request from " + selected.getFrom().getUsername());
-        } catch (Exception e) {
-            log("Error: " + e.getMessage());
-        }
+        LoadSlot.onFx(async.rejectRequest(selected),
+                done -> log("Rejected request from " + selected.getFrom().getUsername()),
+                e -> log("Error: " + e.getMessage()));
     }
 
     @FXML
     public void onStats() {
         log("--- Community Stats ---");
-        try {
-            log("Communities count: " + community.countCommunities());
-
-            var soc = community.mostSociableCommunity();
-            log("Most Sociable Diameter: " + soc.diameter());
-            log("Number of Members: " + soc.members().size());
-            log("Members: ");
-            soc.members().forEach(u -> log(" - " + u.getUsername() + " (ID: " + u.getId() + ")"));
-        } catch (Exception e) {
-            log("Error calculating stats: " + e.getMessage());
-        }
+        statsLoad.start(async.countCommunities().thenCombine(async.mostSociableCommunity(), (count, soc) -> {
+                    List<String> lines = new ArrayList<>();
+                    lines.add("Communities count: " + count);
+                    lines.add("Most Sociable Diameter: " + soc.diameter());
+                    lines.add("Number of Members: " + soc.members().size());
+                    lines.add("Members: ");
+                    soc.members().forEach(u -> lines.add(" - " + u.getUsername() + " (ID: " + u.getId() + ")"));
+                    return lines;
+                }),
+                lines -> lines.forEach(this::log),
+                e -> log("Error calculating stats: " + e.getMessage()));
     }
 
     public void cleanup() {
+        requestsLoad.cancel();
+        statsLoad.cancel();
         if (requestService != null)
-            requestService.removeObserver(this);
+            requestService.unsubscribe(currentUser.getId(), this);
     }
 }
 
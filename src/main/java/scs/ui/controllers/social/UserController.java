@@ -5,13 +5,13 @@ import javafx.beans.binding.Bindings;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.ObservableList;
-import javafx.concurrent.Task;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import scs.domain.interactions.Relation;
+import scs.app.AsyncServices;
 import scs.domain.user.*;
 import scs.service.social.UserService;
-import scs.service.friend.FriendshipService;
-import scs.service.friend.RequestService;
+import scs.ui.LoadSlot;
 import scs.ui.pages.ProfilePage;
 import scs.utilities.events.EntityChangeEvent;
 import scs.utilities.observer.Observer;
@@ -22,7 +22,8 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
 
 public class UserController implements Observer<EntityChangeEvent<User>> {
 
@@ -46,6 +47,8 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
     private TableColumn<User, Double> colSpeed;
     @FXML
     private TableColumn<User, Double> colRes;
+    @FXML
+    private TableColumn<User, String> colRelation;
 
     // Filters
     @FXML
@@ -65,21 +68,27 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
     private int pageSize = 5;
     private int totalRecords = 0;
 
+    private Cursor currentCursor = Cursor.first(pageSize);
+    private CursorPage<User> currentSlice = CursorPage.empty(pageSize);
+
     private ContextMenu activeMenu = null;
 
-    // Services
+    // Services, userService only for its change events
     private UserService userService;
-    private RequestService requestService;
-    private FriendshipService friendshipService;
+    private AsyncServices async;
     private User currentUser;
 
+    // a new filter or page click drops the load still running for the previous one
+    private final LoadSlot pageLoad = new LoadSlot();
+
     private final ObservableList<User> tableModel = FXCollections.observableArrayList();
 
-    public void setContext(UserService service, RequestService reqService,
-                           FriendshipService friendService, User loggedIn) {
+    // relation of every user on the current page, loaded in one batch with the page
+    private Map<Long, Relation> relations = new HashMap<>();
+
+    public void setContext(UserService service, AsyncServices async, User loggedIn) {
         this.userService = service;
-        this.requestService = reqService;
-        this.friendshipService = friendService;
+        this.async = async;
         this.currentUser = loggedIn;
 
         this.userService.addObserver(this);
@@ -139,7 +148,8 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
 
         String rel = relationCombo.getValue();
         if (!"ALL".equals(rel)) {
-            boolean areFriends = friendshipService.areFriends(currentUser.getId(), u.getId());
+            // only reached for users just added, who have no friends yet
+            boolean areFriends = relationOf(u) == Relation.FRIEND;
 
             if (rel.equals("FRIENDS") && !areFriends) return false;
             if (rel.equals("NOT FRIENDS") && areFriends) return false;
@@ -183,6 +193,23 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
                 return new SimpleObjectProperty<>(d.getResistance());
             return null;
         });
+
+        colRelation.setCellValueFactory(cellData -> new SimpleStringProperty(
+                switch (relationOf(cellData.getValue())) {
+                    case FRIEND -> "Friend";
+                    case PENDING_OUT -> "Request sent";
+                    case PENDING_IN -> "Wants to be friends";
+                    case NONE -> "-";
+                }));
+    }
+
+    private Relation relationOf(User u) {
+        return relations.getOrDefault(u.getId(), Relation.NONE);
+    }
+
+    private void setRelation(User u, Relation relation) {
+        relations.put(u.getId(), relation);
+        usersTable.refresh();
     }
 
     private void initFilters() {
@@ -207,17 +234,17 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
             if (!isDuckMode)
                 duckTypeCombo.getSelectionModel().select("ALL");
 
-            this.currentPage = 0;
+            resetPaging();
             loadUsersBackground();
         });
 
         duckTypeCombo.setOnAction(e -> {
-            currentPage = 0;
+            resetPaging();
             loadUsersBackground();
         });
 
         relationCombo.setOnAction(e -> {
-            currentPage = 0;
+            resetPaging();
             loadUsersBackground();
         });
     }
@@ -247,17 +274,28 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
                 menu.getItems().add(viewProfile);
 
                 if (!target.getId().equals(currentUser.getId())) {
-                    boolean isFriend = friendshipService.areFriends(currentUser.getId(), target.getId());
-
-                    if (isFriend) {
-                        MenuItem removeFriend = new MenuItem("Remove Friend");
-                        removeFriend.setStyle("-fx-text-fill: #e74c3c;");
-                        removeFriend.setOnAction(event -> removeFriendship(target));
-                        menu.getItems().add(removeFriend);
-                    } else {
-                        MenuItem sendReq = new MenuItem("Send Friend Request");
-                        sendReq.setOnAction(event -> sendFriendRequest(target));
-                        menu.getItems().add(sendReq);
+                    switch (relationOf(target)) {
+                        case FRIEND -> {
+                            MenuItem removeFriend = new MenuItem("Remove Friend");
+                            removeFriend.setStyle("-fx-text-fill: #e74c3c;");
+                            removeFriend.setOnAction(event -> removeFriendship(target));
+                            menu.getItems().add(removeFriend);
+                        }
+                        case PENDING_OUT -> {
+                            MenuItem pending = new MenuItem("Friend Request Sent");
+                            pending.setDisable(true);
+                            menu.getItems().add(pending);
+                        }
+                        case PENDING_IN -> {
+                            MenuItem pending = new MenuItem("Sent You a Request (check inbox)");
+                            pending.setDisable(true);
+                            menu.getItems().add(pending);
+                        }
+                        case NONE -> {
+                            MenuItem sendReq = new MenuItem("Send Friend Request");
+                            sendReq.setOnAction(event -> sendFriendRequest(target));
+                            menu.getItems().add(sendReq);
+                        }
                     }
                 }
 
@@ -273,32 +311,31 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
                 "Are you sure you want to remove " + target.getUsername() + " from you friends?");
 
         confirm.showAndWait().ifPresent(response -> {
-            if (response == ButtonType.OK) {
-                try {
-                    friendshipService.removeFriendship(currentUser.getId(), target.getId());
-                    if (!relationCombo.getValue().equals("ALL"))
-                        loadUsersBackground();
-                } catch (Exception e) {
-                    new Alert(Alert.AlertType.ERROR, "Could not remove friendship: " +e.getMessage()).show();
-                }
-            }
+            if (response == ButtonType.OK)
+                LoadSlot.onFx(async.removeFriendship(currentUser.getId(), target.getId()),
+                        done -> {
+                            setRelation(target, Relation.NONE);
+                            if (!relationCombo.getValue().equals("ALL"))
+                                loadUsersBackground();
+                        },
+                        e -> new Alert(Alert.AlertType.ERROR, "Could not remove friendship: " + e.getMessage()).show());
         });
     }
 
     private void sendFriendRequest(User target) {
-        try {
-            requestService.sendRequest(currentUser.getId(), target.getId());
-            new Alert(Alert.AlertType.INFORMATION, "Friend request sent to " + target.getUsername()).show();
-        } catch (Exception e) {
-            new Alert(Alert.AlertType.ERROR, e.getMessage()).show();
-        }
+        LoadSlot.onFx(async.sendRequest(currentUser.getId(), target.getId()),
+                done -> {
+                    setRelation(target, Relation.PENDING_OUT);
+                    new Alert(Alert.AlertType.INFORMATION, "Friend request sent to " + target.getUsername()).show();
+                },
+                e -> new Alert(Alert.AlertType.ERROR, e.getMessage()).show());
     }
 
     private void openProfileWindow(User target) {
         try {
-            boolean isFriend = friendshipService.areFriends(currentUser.getId(), target.getId());
+            boolean isFriend = relationOf(target) == Relation.FRIEND;
 
-            ProfilePage page = new ProfilePage(target, false, isFriend, userService, null);
+            ProfilePage page = new ProfilePage(target, false, isFriend, async, null);
 
             Stage stage = new Stage();
             stage.setTitle("Profile: " + target.getUsername());
@@ -313,7 +350,18 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
         }
     }
 
+    private void resetPaging() {
+        currentPage = 0;
+        currentCursor = Cursor.first(pageSize);
+    }
+
+    // Reloads the current page and recounts, used when filters or data change
     private void loadUsersBackground() {
+        loadUsersBackground(currentCursor, true, currentPage);
+    }
+
+    // Page navigation only seeks from the cursor, the total stays the same
+    private void loadUsersBackground(Cursor cursor, boolean recount, int page) {
         if (currentUser == null)
             return;
 
@@ -322,29 +370,23 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
         String uType = userTypeCombo.getValue();
         String dType = duckTypeCombo.getValue();
         String relType = relationCombo.getValue();
-        Pageable p = new Pageable(currentPage, pageSize);
-
-        Task<Page<User>> task = new Task<>() {
-            @Override
-            protected Page<User> call() {
-                Set<Long> friendIds = friendshipService.getFriendsOf(currentUser.getId());
-                return userService.searchUsers(p, uType, dType, relType, currentUser.getId(), friendIds);
-            }
-        };
-
-        task.setOnSucceeded(e -> {
-            Page<User> res = task.getValue();
-            tableModel.setAll(res.getElementsOnPage());
-            totalRecords = res.getTotalElementCount();
-            updatePageLabel();
-        });
 
-        task.setOnFailed(e -> {
-            pageLabel.setText("Error loading data.");
-            new Alert(Alert.AlertType.ERROR, "Failed to load users: " + task.getException().getMessage()).show();
-        });
-
-        new Thread(task).start();
+        Long me = currentUser.getId();
+        pageLoad.start(async.usersPage(me, cursor, uType, dType, relType, recount),
+                res -> {
+                    currentPage = page;
+                    currentCursor = cursor;
+                    currentSlice = res.slice();
+                    relations = res.relations();
+                    tableModel.setAll(res.slice().getElementsOnPage());
+                    if (res.total() >= 0)
+                        totalRecords = res.total();
+                    updatePageLabel();
+                },
+                e -> {
+                    pageLabel.setText("Error loading data.");
+                    new Alert(Alert.AlertType.ERROR, "Failed to load users: " + e.getMessage()).show();
+                });
     }
 
     private void updatePageLabel() {
@@ -361,7 +403,7 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
             int newSize = Integer.parseInt(pageSizeInput.getText());
             if (newSize > 0) {
                 this.pageSize = newSize;
-                this.currentPage = 0;
+                resetPaging();
                 loadUsersBackground();
             } else {
                 pageSizeInput.setText(String.valueOf(pageSize));
@@ -373,22 +415,18 @@ public class UserController implements Observer<EntityChangeEvent<User>> {
 
     @FXML
     public void onNextPage() {
-        int totalPages = (int) Math.ceil((double) totalRecords / pageSize);
-        if (currentPage < totalPages - 1) {
-            currentPage++;
-            loadUsersBackground();
-        }
+        if (currentSlice.hasNext())
+            loadUsersBackground(currentSlice.nextCursor(), false, currentPage + 1);
     }
 
     @FXML
     public void onPrevPage() {
-        if (currentPage > 0) {
-            currentPage--;
-            loadUsersBackground();
-        }
+        if (currentPage > 0 && currentSlice.hasPrevious())
+            loadUsersBackground(currentSlice.previousCursor(), false, currentPage - 1);
     }
 
     public void cleanup() {
+        pageLoad.cancel();
         if (userService != null)
             userService.removeObserver(this);
     }
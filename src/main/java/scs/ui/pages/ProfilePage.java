@@ -2,8 +2,8 @@ package scs.ui.pages;
 
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
+import scs.app.AsyncServices;
 import scs.domain.user.User;
-import scs.service.social.UserService;
 import scs.ui.controllers.ProfileController;
 
 import java.io.IOException;
@@ -13,12 +13,12 @@ public class ProfilePage implements Page {
     private ProfileController controller;
     private final User targetUser;
 
-    private final UserService userService;
+    private final AsyncServices async;
     private final Runnable logoutHandler;
 
-    public ProfilePage(User user, boolean isMe, boolean isFriend, UserService userService, Runnable logoutHandler) {
+    public ProfilePage(User user, boolean isMe, boolean isFriend, AsyncServices async, Runnable logoutHandler) {
         this.targetUser = user;
-        this.userService = userService;
+        this.async = async;
         this.logoutHandler = logoutHandler;
 
         loadView(isMe, isFriend);
@@ -31,7 +31,7 @@ public class ProfilePage implements Page {
             this.controller = loader.getController();
 
             if (this.controller != null) {
-                this.controller.setContext(targetUser, userService, logoutHandler);
+                this.controller.setContext(targetUser, async, logoutHandler);
                 this.controller.setRelationStatus(isMe, isFriend);
             }
         } catch (IOException e) {
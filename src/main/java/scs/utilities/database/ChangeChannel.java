@@ -0,0 +1,46 @@
+package scs.utilities.database;
+
+import scs.utilities.errors.DatabaseException;
+import scs.utilities.events.ChangeEventType;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Carries entity changes between running instances over a Postgres NOTIFY channel.
+ * Payloads are "origin:TYPE:key1:key2...", every instance skips the ones it sent itself.
+ */
+public final class ChangeChannel {
+    private static final String ORIGIN = UUID.randomUUID().toString().substring(0, 8);
+
+    private final String name;
+
+    public ChangeChannel(String name) {
+        this.name = name;
+    }
+
+    // Best effort, a failed notify must not fail the write that already happened
+    public void publish(ChangeEventType type, Object... keys) {
+        StringBuilder payload = new StringBuilder(ORIGIN).append(':').append(type);
+        for (Object key : keys)
+            payload.append(':').append(key);
+
+        try {
+            Db.publish(name, payload.toString());
+        } catch (DatabaseException e) {
+            System.err.println("Could not publish on " + name + ": " + e.getMessage());
+        }
+    }
+
+    // handler gets the change type and the keys, only for changes made by other instances
+    public void subscribe(BiConsumer<ChangeEventType, String[]> handler) {
+        Db.listen(name, payload -> {
+            String[] parts = payload.split(":");
+            if (parts.length < 2 || parts[0].equals(ORIGIN))
+                return;
+
+            handler.accept(ChangeEventType.valueOf(parts[1]), Arrays.copyOfRange(parts, 2, parts.length));
+        });
+    }
+}
@@ -1,15 +1,34 @@
 package scs.utilities.database;
 
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
 import scs.utilities.errors.DatabaseException;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
-import java.sql.Connection;
-import java.sql.SQLException;
+import java.sql.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 public final class Db {
+    public static final int MAX_POOL_SIZE = 10;
 
     private static HikariDataSource DATA_SOURCE;
+    private static String URL, USERNAME, PASSWORD;
+
+    // LISTEN/NOTIFY: one dedicated connection outside the pool, owned by the listener thread
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_MILLIS = 500;
+    private static final long RECONNECT_MILLIS = 2000;
+    private static final Map<String, List<Consumer<String>>> LISTENERS = new ConcurrentHashMap<>();
+    private static Thread LISTENER;
+    private static volatile boolean LISTENING = false;
 
     private Db() {
     }
@@ -21,11 +40,14 @@ public final class Db {
             config.setUsername(username);
             config.setPassword(password);
 
-            config.setMaximumPoolSize(10);
+            config.setMaximumPoolSize(MAX_POOL_SIZE);
             config.setMinimumIdle(2);
             config.setIdleTimeout(30000);
 
             DATA_SOURCE = new HikariDataSource(config);
+            URL = url;
+            USERNAME = username;
+            PASSWORD = password;
         }
     }
 
@@ -36,7 +58,78 @@ public final class Db {
         return DATA_SOURCE.getConnection();
     }
 
+    // Sends payload to every connection listening on channel. Runs on its own pooled autocommit connection,
+    // so it is a separate statement sent right after the write, not part of the write's transaction
+    public static void publish(String channel, String payload) {
+        try (Connection con = getConnection(); PreparedStatement ps = con.prepareStatement("SELECT pg_notify(?, ?)")) {
+            ps.setString(1, channel);
+            ps.setString(2, payload);
+            ps.execute();
+        } catch (SQLException e) {
+            throw new DatabaseException("notify", e.getMessage());
+        }
+    }
+
+    // Handlers run on the listener thread, one notification at a time
+    public static synchronized void listen(String channel, Consumer<String> handler) {
+        if (!CHANNEL_NAME.matcher(channel).matches())
+            throw new IllegalArgumentException("Invalid channel name: " + channel);
+        if (URL == null)
+            throw new DatabaseException("connection", "Database not initialized yet.");
+
+        LISTENERS.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(handler);
+
+        if (LISTENER == null) {
+            LISTENING = true;
+            LISTENER = Thread.ofPlatform().daemon().name("db-listener").start(Db::listenLoop);
+        }
+    }
+
+    private static void listenLoop() {
+        while (LISTENING) {
+            try (Connection con = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+                 Statement st = con.createStatement()) {
+                PGConnection pg = con.unwrap(PGConnection.class);
+                Set<String> subscribed = new HashSet<>();
+
+                while (LISTENING) {
+                    // channels added since the last round
+                    for (String channel : LISTENERS.keySet())
+                        if (subscribed.add(channel))
+                            st.execute("LISTEN " + channel);
+
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications == null)
+                        continue;
+
+                    for (PGNotification n : notifications)
+                        for (Consumer<String> handler : LISTENERS.getOrDefault(n.getName(), List.of()))
+                            try {
+                                handler.accept(n.getParameter());
+                            } catch (RuntimeException e) {
+                                System.err.println("Listener on " + n.getName() + " failed: " + e.getMessage());
+                            }
+                }
+            } catch (SQLException e) {
+                // anything sent while disconnected is lost, views catch up on their next reload
+                System.err.println("Listener connection lost: " + e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
     public static void close() {
+        synchronized (Db.class) {
+            LISTENING = false;
+            if (LISTENER != null)
+                LISTENER.interrupt();
+            LISTENER = null;
+        }
+
         if (DATA_SOURCE != null)
             DATA_SOURCE.close();
     }
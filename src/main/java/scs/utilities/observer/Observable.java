@@ -1,22 +1,121 @@
 package scs.utilities.observer;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class Observable<E> {
-    private final List<Observer<E>> observers = new CopyOnWriteArrayList<>();
+    public enum Dispatch {
+        SYNC,   // observers run on the publishing thread, in registration order
+        ASYNC   // each observer drains its own bounded queue on a virtual thread
+    }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    // queue is null for synchronous observers
+    private record Subscription<E>(Observer<E> observer, ObserverQueue<E> queue) {
+        void deliver(E event) {
+            if (queue == null)
+                observer.update(event);
+            else
+                queue.offer(event);
+        }
+    }
+
+    private final List<Subscription<E>> observers = new CopyOnWriteArrayList<>();
+    // observers that only want events about one topic (e.g. a user id), see topicsOf
+    private final Map<Object, List<Subscription<E>>> topics = new ConcurrentHashMap<>();
+
+    private volatile Dispatch dispatch = Dispatch.SYNC;
+    private volatile int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    // Applies to observers added afterwards
+    public void setDispatch(Dispatch dispatch, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this.dispatch = dispatch;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setDispatch(Dispatch dispatch) {
+        this.dispatch = dispatch;
+    }
 
     public void addObserver(Observer<E> observer) {
-        observers.add(observer);
+        addObserver(observer, dispatch);
+    }
+
+    // Caches that must be current before the write returns register as SYNC
+    public void addObserver(Observer<E> observer, Dispatch mode) {
+        observers.add(subscription(observer, mode));
     }
 
     public void removeObserver(Observer<E> observer) {
-        observers.remove(observer);
+        remove(observers, observer);
+    }
+
+    // Only events whose topicsOf contains topic reach the observer
+    public void subscribe(Object topic, Observer<E> observer) {
+        subscribe(topic, observer, dispatch);
+    }
+
+    public void subscribe(Object topic, Observer<E> observer, Dispatch mode) {
+        topics.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(subscription(observer, mode));
+    }
+
+    public void unsubscribe(Object topic, Observer<E> observer) {
+        topics.computeIfPresent(topic, (t, list) -> {
+            remove(list, observer);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    // Topics an event belongs to, subclasses publishing keyed events override this
+    protected Collection<?> topicsOf(E event) {
+        return List.of();
+    }
+
+    private Subscription<E> subscription(Observer<E> observer, Dispatch mode) {
+        ObserverQueue<E> queue = (mode == Dispatch.ASYNC)
+                ? new ObserverQueue<>(observer, queueCapacity, overflowPolicy)
+                : null;
+        return new Subscription<>(observer, queue);
+    }
+
+    private static <E> void remove(List<Subscription<E>> list, Observer<E> observer) {
+        for (Subscription<E> s : list)
+            if (s.observer().equals(observer)) {
+                list.remove(s);
+                if (s.queue() != null)
+                    s.queue().close();
+            }
     }
 
     protected void notifyObservers(E event) {
-        for (Observer<E> obs : observers)
-            obs.update(event);
+        for (Subscription<E> s : observers)
+            s.deliver(event);
+
+        if (topics.isEmpty())
+            return;
+
+        Collection<?> eventTopics = topicsOf(event);
+        if (eventTopics.size() == 1) {
+            List<Subscription<E>> list = topics.get(eventTopics.iterator().next());
+            if (list != null)
+                for (Subscription<E> s : list)
+                    s.deliver(event);
+            return;
+        }
+
+        // an observer subscribed to several matching topics still gets the event once
+        Set<Observer<E>> delivered = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object topic : eventTopics) {
+            List<Subscription<E>> list = topics.get(topic);
+            if (list != null)
+                for (Subscription<E> s : list)
+                    if (delivered.add(s.observer()))
+                        s.deliver(event);
+        }
     }
 
 }
@@ -0,0 +1,113 @@
+package scs.utilities.observer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue in front of one observer.
+ * At most one drain runs at a time, so the observer sees events in the order they were published.
+ */
+final class ObserverQueue<E> {
+    // drains are short lived and mostly wait on Platform.runLater or the database
+    private static final ExecutorService DRAINERS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Observer<E> observer;
+    private final int capacity;
+    private final OverflowPolicy policy;
+
+    private final ArrayDeque<E> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private boolean draining = false;
+    private Thread drainer;
+    private boolean closed = false;
+
+    ObserverQueue(Observer<E> observer, int capacity, OverflowPolicy policy) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+
+        this.observer = observer;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    Observer<E> observer() {
+        return observer;
+    }
+
+    void offer(E event) {
+        lock.lock();
+        try {
+            // an observer publishing to itself must not wait for its own drain
+            boolean reentrant = Thread.currentThread() == drainer;
+
+            while (!closed && queue.size() >= capacity && !reentrant) {
+                switch (policy) {
+                    case DROP_NEWEST -> {
+                        return;
+                    }
+                    case DROP_OLDEST -> queue.pollFirst();
+                    case BLOCK -> {
+                        try {
+                            notFull.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            }
+            if (closed)
+                return;
+
+            queue.addLast(event);
+            if (!draining) {
+                draining = true;
+                DRAINERS.execute(this::drain);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Pending events are dropped, blocked publishers are released
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            queue.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            E event;
+            lock.lock();
+            try {
+                event = queue.pollFirst();
+                if (event == null) {
+                    draining = false;
+                    drainer = null;
+                    return;
+                }
+                drainer = Thread.currentThread();
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                observer.update(event);
+            } catch (RuntimeException e) {
+                // one failing observer must not stop its queue
+                System.err.println("Observer " + observer + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
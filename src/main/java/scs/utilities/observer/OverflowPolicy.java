@@ -0,0 +1,8 @@
+package scs.utilities.observer;
+
+// What an async observer queue does when it is full
+public enum OverflowPolicy {
+    BLOCK,          // the notifying thread waits for room
+    DROP_NEWEST,    // the new event is discarded
+    DROP_OLDEST     // the oldest queued event is discarded to make room
+}
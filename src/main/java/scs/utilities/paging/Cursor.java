@@ -0,0 +1,51 @@
+package scs.utilities.paging;
+
+/**
+ * Position for keyset (seek) pagination.
+ * Instead of skipping rows with OFFSET we remember the last seen key and continue from there,
+ * so every page costs the same no matter how deep we are.
+ */
+public class Cursor {
+    public enum Direction {
+        NEXT,
+        PREVIOUS
+    }
+
+    private final Long key;     // null -> first page
+    private final Direction direction;
+    private final int pageSize;
+
+    public Cursor(Long key, Direction direction, int pageSize) {
+        this.key = key;
+        this.direction = direction;
+        this.pageSize = pageSize;
+    }
+
+    public static Cursor first(int pageSize) {
+        return new Cursor(null, Direction.NEXT, pageSize);
+    }
+
+    public static Cursor after(Long key, int pageSize) {
+        return new Cursor(key, Direction.NEXT, pageSize);
+    }
+
+    public static Cursor before(Long key, int pageSize) {
+        return new Cursor(key, Direction.PREVIOUS, pageSize);
+    }
+
+    public Long getKey() {
+        return key;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean isFirst() {
+        return key == null;
+    }
+}
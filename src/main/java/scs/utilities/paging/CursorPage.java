@@ -0,0 +1,54 @@
+package scs.utilities.paging;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CursorPage<E> {
+    private final List<E> elements;
+    private final Long firstKey;
+    private final Long lastKey;
+    private final boolean hasNext;
+    private final boolean hasPrevious;
+    private final int pageSize;
+
+    public CursorPage(List<E> elements, Long firstKey, Long lastKey, boolean hasNext, boolean hasPrevious, int pageSize) {
+        this.elements = elements;
+        this.firstKey = firstKey;
+        this.lastKey = lastKey;
+        this.hasNext = hasNext;
+        this.hasPrevious = hasPrevious;
+        this.pageSize = pageSize;
+    }
+
+    public static <E> CursorPage<E> empty(int pageSize) {
+        return new CursorPage<>(List.of(), null, null, false, false, pageSize);
+    }
+
+    public List<E> getElementsOnPage() {
+        return elements;
+    }
+
+    public int getCurrentPageSize() {
+        return elements.size();
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    public Cursor nextCursor() {
+        return Cursor.after(lastKey, pageSize);
+    }
+
+    public Cursor previousCursor() {
+        return Cursor.before(firstKey, pageSize);
+    }
+
+    public Stream<E> stream() {
+        return elements.stream();
+    }
+}
@@ -0,0 +1,43 @@
+package scs.utilities.paging;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position in a message history, ordered by (send_at, id_message).
+ * Pages go backwards in time: the latest page first, then older ones before the oldest message seen.
+ */
+public class MessageCursor {
+    private final LocalDateTime sentAt;     // null -> latest page
+    private final Long messageId;
+    private final int pageSize;
+
+    public MessageCursor(LocalDateTime sentAt, Long messageId, int pageSize) {
+        this.sentAt = sentAt;
+        this.messageId = messageId;
+        this.pageSize = pageSize;
+    }
+
+    public static MessageCursor latest(int pageSize) {
+        return new MessageCursor(null, null, pageSize);
+    }
+
+    public static MessageCursor before(LocalDateTime sentAt, Long messageId, int pageSize) {
+        return new MessageCursor(sentAt, messageId, pageSize);
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean isLatest() {
+        return sentAt == null;
+    }
+}
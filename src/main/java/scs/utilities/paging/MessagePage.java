@@ -0,0 +1,31 @@
+package scs.utilities.paging;
+
+import scs.domain.interactions.Message;
+
+import java.util.List;
+
+// One slice of a conversation, oldest message first
+public class MessagePage {
+    private final List<Message> messages;
+    private final boolean hasOlder;
+    private final int pageSize;
+
+    public MessagePage(List<Message> messages, boolean hasOlder, int pageSize) {
+        this.messages = messages;
+        this.hasOlder = hasOlder;
+        this.pageSize = pageSize;
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    public boolean hasOlder() {
+        return hasOlder;
+    }
+
+    public MessageCursor olderCursor() {
+        Message oldest = messages.getFirst();
+        return MessageCursor.before(oldest.getDate(), oldest.getId(), pageSize);
+    }
+}
@@ -0,0 +1,125 @@
+package scs.domain.event;
+
+import org.junit.jupiter.api.Test;
+import scs.domain.user.Duck;
+import scs.domain.user.SwimmingDuck;
+import scs.utilities.errors.NotFoundException;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaneSolverTest {
+
+    // Every ordered pick of lanes.length ducks with non-increasing resistance, best slowest lane
+    private static double bruteForce(List<Duck> ducks, double[] lanes) {
+        return bruteForce(ducks, lanes, 0, new boolean[ducks.size()], Double.POSITIVE_INFINITY, 0.0);
+    }
+
+    private static double bruteForce(List<Duck> ducks, double[] lanes, int lane, boolean[] used,
+                                     double lastResistance, double slowest) {
+        if (lane == lanes.length)
+            return slowest;
+
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < ducks.size(); ++i) {
+            Duck d = ducks.get(i);
+            if (used[i] || d.getResistance() > lastResistance)
+                continue;
+
+            used[i] = true;
+            double t = 2.0 * lanes[lane] / d.getSpeed();
+            best = Math.min(best, bruteForce(ducks, lanes, lane + 1, used, d.getResistance(), Math.max(slowest, t)));
+            used[i] = false;
+        }
+        return best;
+    }
+
+    // few distinct resistances, so ties between ducks are common
+    private static List<Duck> tiedPool(Random random, int n) {
+        List<Duck> ducks = new ArrayList<>();
+        for (long id = 1; id <= n; ++id)
+            ducks.add(new SwimmingDuck(id, "duck" + id, null, null,
+                    1 + 9 * random.nextDouble(), random.nextInt(4)));
+        return ducks;
+    }
+
+    private static List<Duck> pool(Random random, int n) {
+        List<Duck> ducks = new ArrayList<>();
+        for (long id = 1; id <= n; ++id)
+            ducks.add(new SwimmingDuck(id, "duck" + id, null, null,
+                    1 + 9 * random.nextDouble(), 10 * random.nextDouble()));
+        return ducks;
+    }
+
+    @Test
+    void matchesBruteForceOnSmallPools() {
+        Random random = new Random(21);
+        for (int round = 0; round < 500; ++round) {
+            List<Duck> ducks = round % 2 == 0 ? tiedPool(random, 2 + random.nextInt(6)) : pool(random, 2 + random.nextInt(6));
+            double[] lanes = new double[1 + random.nextInt(Math.min(4, ducks.size()))];
+            for (int j = 0; j < lanes.length; ++j)
+                lanes[j] = 10 + 190 * random.nextDouble();
+
+            double expected = bruteForce(ducks, lanes);
+            RaceEvent.Result result = LaneSolver.solve(ducks, lanes, lanes.length);
+
+            assertEquals(expected, result.totalTime(), 1e-6 * expected, "round " + round);
+            assertValid(ducks, lanes, result);
+        }
+    }
+
+    @Test
+    void neverSlowerThanTheHeuristic() {
+        Random random = new Random(7);
+        for (int round = 0; round < 100; ++round) {
+            List<Duck> ducks = pool(random, 20 + random.nextInt(30));
+            double[] lanes = new double[5];
+            for (int j = 0; j < lanes.length; ++j)
+                lanes[j] = 50 + 100 * random.nextDouble();
+
+            double heuristic = new RaceEvent(null, "race", ducks, lanes, lanes.length).runRace().totalTime();
+            double optimal = LaneSolver.solve(ducks, lanes, lanes.length).totalTime();
+            assertTrue(optimal <= heuristic * (1 + 1e-9), "round " + round);
+        }
+    }
+
+    @Test
+    void slowResistantDuckInTheShortLane() {
+        List<Duck> ducks = List.of(
+                new SwimmingDuck(1L, "duck1", null, null, 1, 1),
+                new SwimmingDuck(2L, "duck2", null, null, 10, 2));
+        double[] lanes = {100, 1};
+
+        RaceEvent.Result heuristic = new RaceEvent(null, "race", ducks, lanes, lanes.length).runRace();
+        RaceEvent.Result optimal = LaneSolver.solve(ducks, lanes, lanes.length);
+
+        assertEquals(20.0, heuristic.totalTime(), 1e-9);
+        assertEquals(20.0, optimal.totalTime(), 1e-6);
+        assertEquals(2L, optimal.lanes().getFirst().duckId());
+    }
+
+    @Test
+    void tooFewDucksIsNotFound() {
+        List<Duck> ducks = pool(new Random(1), 2);
+        assertThrows(NotFoundException.class, () -> LaneSolver.solve(ducks, new double[]{10, 20, 30}, 3));
+    }
+
+    private static void assertValid(List<Duck> ducks, double[] lanes, RaceEvent.Result result) {
+        Map<Long, Duck> byId = new HashMap<>();
+        for (Duck d : ducks)
+            byId.put(d.getId(), d);
+
+        assertEquals(lanes.length, result.lanes().size());
+        Set<Long> seen = new HashSet<>();
+        double lastResistance = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < lanes.length; ++j) {
+            RaceEvent.LaneResult r = result.lanes().get(j);
+            Duck d = byId.get(r.duckId());
+            assertEquals(j + 1, r.lane());
+            assertTrue(seen.add(r.duckId()), "duck placed twice");
+            assertTrue(d.getResistance() <= lastResistance, "resistance order broken");
+            lastResistance = d.getResistance();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package scs.domain.event;
+
+import org.junit.jupiter.api.Test;
+import scs.domain.user.Duck;
+import scs.domain.user.SwimmingDuck;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaceSimulationTest {
+    private static List<Duck> randomDucks(Random random, int n) {
+        List<Duck> ducks = new ArrayList<>();
+        for (long id = 1; id <= n; ++id)
+            ducks.add(new SwimmingDuck(id, "duck" + id, null, null,
+                    0.5 + 9.5 * random.nextDouble(), 12 * random.nextDouble()));
+        return ducks;
+    }
+
+    private static double[] randomLanes(Random random, int n) {
+        double[] lanes = new double[n];
+        for (int i = 0; i < n; ++i)
+            lanes[i] = 10 + 190 * random.nextDouble();
+        return lanes;
+    }
+
+    // The loop every per-duck thread used to run, one iteration per 50ms tick,
+    // with the time interpolated inside the last tick like RaceSimulation does
+    private static double closedLoop(Duck duck, double distance) {
+        double covered = 0;
+        double speed = duck.getSpeed();
+        int ticks = 0;
+        while (true) {
+            double move = speed / 5.0;
+            if (covered + move >= distance)
+                return (ticks + (distance - covered) / move) * RaceSimulation.STEP_SECONDS;
+
+            covered += move;
+            speed = Math.max(1.0, speed - (10.0 - Math.min(duck.getResistance(), 10.0)) / 200.0);
+            ++ticks;
+        }
+    }
+
+    @Test
+    void withoutJitterEveryLaneMatchesThePerDuckLoop() {
+        Random random = new Random(3);
+        for (int round = 0; round < 100; ++round) {
+            int n = 1 + random.nextInt(8);
+            List<Duck> ducks = randomDucks(random, n);
+            double[] lanes = randomLanes(random, n);
+
+            RaceEvent.Result result = new RaceSimulation(ducks, lanes).runToEnd();
+
+            assertEquals(n, result.lanes().size());
+            double slowest = 0;
+            for (RaceEvent.LaneResult lane : result.lanes()) {
+                Duck duck = ducks.get(lane.lane() - 1);
+                double expected = closedLoop(duck, lanes[lane.lane() - 1]);
+                assertEquals(duck.getId(), lane.duckId());
+                assertEquals(expected, lane.time(), 1e-9);
+                slowest = Math.max(slowest, expected);
+            }
+            assertEquals(slowest, result.totalTime(), 1e-9);
+        }
+    }
+
+    @Test
+    void sameSeedGivesTheSameFrames() {
+        Random random = new Random(11);
+        List<Duck> ducks = randomDucks(random, 6);
+        double[] lanes = randomLanes(random, 6);
+
+        RaceSimulation first = new RaceSimulation(ducks, lanes, 1234L, 0.3);
+        RaceSimulation second = new RaceSimulation(ducks, lanes, 1234L, 0.3);
+        RaceSimulation other = new RaceSimulation(ducks, lanes, 4321L, 0.3);
+
+        boolean diverged = false;
+        while (!first.isFinished()) {
+            first.step();
+            second.step();
+            other.step();
+
+            RaceSimulation.Frame a = first.snapshot();
+            RaceSimulation.Frame b = second.snapshot();
+            assertEquals(a.step(), b.step());
+            assertArrayEquals(a.covered(), b.covered());
+            assertArrayEquals(a.finishTimes(), b.finishTimes());
+            diverged |= !Arrays.equals(a.covered(), other.snapshot().covered());
+        }
+
+        assertTrue(second.isFinished());
+        assertEquals(first.result(), second.result());
+        assertTrue(diverged, "another seed should give another race");
+    }
+
+    @Test
+    void leaderIsTheFirstLaneHome() {
+        List<Duck> ducks = List.of(
+                new SwimmingDuck(1L, "slow", null, null, 2.0, 5.0),
+                new SwimmingDuck(2L, "fast", null, null, 8.0, 5.0));
+        RaceSimulation simulation = new RaceSimulation(ducks, new double[]{50, 50});
+
+        while (simulation.snapshot().leader() == -1)
+            simulation.step();
+
+        assertEquals(1, simulation.snapshot().leader());
+        assertEquals(2L, simulation.winner().orElseThrow().duckId());
+    }
+}
@@ -0,0 +1,69 @@
+package scs.domain.event;
+
+import org.junit.jupiter.api.Test;
+import scs.domain.user.Duck;
+import scs.domain.user.SwimmingDuck;
+import scs.utilities.errors.ValidationException;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+    private static final double[] LANES = {50, 80, 120};
+
+    private static List<Tournament.Entry> herds(long seed) {
+        Random random = new Random(seed);
+        List<Tournament.Entry> herds = new ArrayList<>();
+        long id = 1;
+        for (long herd = 1; herd <= 4; ++herd) {
+            List<Duck> swimmers = new ArrayList<>();
+            for (int i = 0; i < 6; ++i, ++id)
+                swimmers.add(new SwimmingDuck(id, "duck" + id, null, null,
+                        1 + 9 * random.nextDouble(), 10 * random.nextDouble()));
+            herds.add(new Tournament.Entry(herd, "herd" + herd, swimmers));
+        }
+        return herds;
+    }
+
+    private static Tournament.Report run(int threads, long seed) {
+        Tournament.Settings defaults = Tournament.Settings.defaults(1000, seed);
+        Tournament.Settings settings = new Tournament.Settings(defaults.races(), defaults.seed(),
+                defaults.speedSpread(), defaults.fatigueSpread(), defaults.jitter(), threads);
+        return new Tournament(herds(5), LANES, settings).run();
+    }
+
+    @Test
+    void sameSeedGivesTheSameReportOnAnyThreadCount() {
+        Tournament.Report single = run(1, 99);
+        Tournament.Report parallel = run(8, 99);
+
+        assertEquals(single, parallel);
+        assertNotEquals(single, run(8, 100));
+    }
+
+    @Test
+    void everyRaceHasOneWinningHerdAndDuck() {
+        Tournament.Report report = run(4, 1);
+
+        assertEquals(1000, report.races());
+        assertEquals(4, report.herds().size());
+        assertEquals(4 * LANES.length, report.ducks().size());
+        assertEquals(1000, report.herds().stream().mapToInt(Tournament.HerdStats::wins).sum());
+        assertEquals(1000, report.ducks().stream().mapToInt(Tournament.DuckStats::wins).sum());
+
+        for (Tournament.HerdStats herd : report.herds()) {
+            Tournament.Stats t = herd.time();
+            assertTrue(t.best() <= t.p50() && t.p50() <= t.p90());
+        }
+    }
+
+    @Test
+    void needsTwoHerdsWithEnoughSwimmers() {
+        List<Tournament.Entry> herds = herds(5);
+        Tournament.Settings settings = Tournament.Settings.defaults(10, 1);
+
+        assertThrows(ValidationException.class, () -> new Tournament(herds.subList(0, 1), LANES, settings));
+        assertThrows(ValidationException.class, () -> new Tournament(herds, new double[7], settings));
+    }
+}
@@ -0,0 +1,55 @@
+package scs.repo.users;
+
+import org.junit.jupiter.api.Test;
+import scs.domain.user.SwimmingDuck;
+import scs.domain.user.User;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedUserRepositoryTest {
+
+    // A delegate that only answers findById, running duringRead while the row is "in flight"
+    private static UserRepository delegate(AtomicInteger reads, Runnable[] duringRead) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findById"))
+                        throw new UnsupportedOperationException(method.getName());
+
+                    Long id = (Long) args[0];
+                    User loaded = new SwimmingDuck(id, "duck" + reads.incrementAndGet(), null, null, 1, 1);
+                    if (duringRead[0] != null)
+                        duringRead[0].run();
+                    return loaded;
+                });
+    }
+
+    @Test
+    void missIsCachedWhenNothingChanged() {
+        AtomicInteger reads = new AtomicInteger();
+        CachedUserRepository cache = new CachedUserRepository(delegate(reads, new Runnable[1]), 16);
+
+        cache.findById(1L);
+        cache.findById(1L);
+        assertEquals(1, reads.get());
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void invalidationDuringTheReadIsNotLost() {
+        AtomicInteger reads = new AtomicInteger();
+        Runnable[] duringRead = new Runnable[1];
+        CachedUserRepository cache = new CachedUserRepository(delegate(reads, duringRead), 16);
+
+        // an update commits after the row was read but before it is cached
+        duringRead[0] = () -> cache.invalidate(1L);
+        assertEquals("duck1", cache.findById(1L).getUsername());
+
+        duringRead[0] = null;
+        assertEquals("duck2", cache.findById(1L).getUsername(), "stale user was cached");
+        assertEquals("duck2", cache.findById(1L).getUsername());
+        assertEquals(2, reads.get());
+    }
+}
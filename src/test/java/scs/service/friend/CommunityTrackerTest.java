@@ -0,0 +1,110 @@
+package scs.service.friend;
+
+import org.junit.jupiter.api.Test;
+import scs.repo.friend.friendships.FriendGraph;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommunityTrackerTest {
+    private static final int USERS = 40;
+
+    // Components rebuilt from the edge list with a plain union-find
+    private static Set<Set<Long>> fromScratch(Set<List<Long>> edges) {
+        Map<Long, Long> parent = new HashMap<>();
+        for (List<Long> e : edges) {
+            parent.putIfAbsent(e.get(0), e.get(0));
+            parent.putIfAbsent(e.get(1), e.get(1));
+            parent.put(find(parent, e.get(0)), find(parent, e.get(1)));
+        }
+
+        Map<Long, Set<Long>> groups = new HashMap<>();
+        for (Long id : parent.keySet())
+            groups.computeIfAbsent(find(parent, id), k -> new HashSet<>()).add(id);
+        return new HashSet<>(groups.values());
+    }
+
+    private static Long find(Map<Long, Long> parent, Long x) {
+        while (!parent.get(x).equals(x))
+            x = parent.get(x);
+        return x;
+    }
+
+    private static void assertSame(Set<List<Long>> edges, CommunityTracker tracker) {
+        Set<Set<Long>> expected = fromScratch(edges);
+        assertEquals(expected.size(), tracker.count());
+        assertEquals(expected, new HashSet<>(tracker.components()));
+
+        for (Set<Long> component : expected) {
+            Long id = tracker.communityIdOf(component.iterator().next());
+            for (Long member : component) {
+                assertEquals(id, tracker.communityIdOf(member));
+                assertEquals(component, tracker.membersOf(member));
+            }
+        }
+    }
+
+    private static List<Long> edge(long u, long v) {
+        return List.of(Math.min(u, v), Math.max(u, v));
+    }
+
+    @Test
+    void mergesAndSplitsLikeARebuild() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; ++round) {
+            Set<List<Long>> edges = new HashSet<>();
+            CommunityTracker tracker = new CommunityTracker(new FriendGraph());
+
+            for (int step = 0; step < 300; ++step) {
+                long u = random.nextInt(USERS) + 1;
+                long v = random.nextInt(USERS) + 1;
+                int op = random.nextInt(10);
+
+                if (op < 5 && u != v) {
+                    tracker.addFriendship(u, v);
+                    edges.add(edge(u, v));
+                } else if (op < 9) {
+                    tracker.removeFriendship(u, v);
+                    edges.remove(edge(u, v));
+                } else {
+                    tracker.removeUser(u);
+                    edges.removeIf(e -> e.contains(u));
+                }
+
+                assertSame(edges, tracker);
+            }
+        }
+    }
+
+    @Test
+    void startsFromAnExistingGraph() {
+        FriendGraph graph = new FriendGraph();
+        graph.addFriendship(1, 2);
+        graph.addFriendship(2, 3);
+        graph.addFriendship(4, 5);
+
+        CommunityTracker tracker = new CommunityTracker(graph);
+        assertEquals(2, tracker.count());
+        assertEquals(Set.of(1L, 2L, 3L), tracker.membersOf(3));
+
+        tracker.removeFriendship(2, 3);
+        assertEquals(2, tracker.count());
+        assertNull(tracker.communityIdOf(3));
+        assertEquals(Set.of(), tracker.membersOf(3));
+    }
+
+    @Test
+    void removingABridgeSplitsTheCommunity() {
+        CommunityTracker tracker = new CommunityTracker(new FriendGraph());
+        tracker.addFriendship(1, 2);
+        tracker.addFriendship(3, 4);
+        tracker.addFriendship(2, 3);
+        assertEquals(1, tracker.count());
+
+        tracker.removeFriendship(2, 3);
+        assertEquals(2, tracker.count());
+        assertEquals(Set.of(1L, 2L), tracker.membersOf(1));
+        assertEquals(Set.of(3L, 4L), tracker.membersOf(4));
+    }
+}
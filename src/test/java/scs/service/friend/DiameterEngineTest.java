@@ -0,0 +1,109 @@
+package scs.service.friend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiameterEngineTest {
+    // Connected random graph on ids 1..n: a random tree plus some extra edges
+    private static Map<Long, Set<Long>> randomGraph(Random random, int n, int extra) {
+        Map<Long, Set<Long>> adj = new HashMap<>();
+        for (long id = 1; id <= n; ++id)
+            adj.put(id, new HashSet<>());
+
+        for (long id = 2; id <= n; ++id)
+            connect(adj, id, 1 + random.nextInt((int) id - 1));
+        for (int i = 0; i < extra; ++i) {
+            long u = 1 + random.nextInt(n), v = 1 + random.nextInt(n);
+            if (u != v)
+                connect(adj, u, v);
+        }
+        return adj;
+    }
+
+    private static void connect(Map<Long, Set<Long>> adj, long u, long v) {
+        adj.computeIfAbsent(u, k -> new HashSet<>()).add(v);
+        adj.computeIfAbsent(v, k -> new HashSet<>()).add(u);
+    }
+
+    // All-pairs BFS, the longest shortest path
+    private static int allPairs(Map<Long, Set<Long>> adj) {
+        int best = 0;
+        for (Long s : adj.keySet()) {
+            Map<Long, Integer> dist = new HashMap<>(Map.of(s, 0));
+            ArrayDeque<Long> queue = new ArrayDeque<>(List.of(s));
+            while (!queue.isEmpty()) {
+                Long u = queue.poll();
+                for (Long v : adj.get(u))
+                    if (dist.putIfAbsent(v, dist.get(u) + 1) == null) {
+                        best = Math.max(best, dist.get(v));
+                        queue.add(v);
+                    }
+            }
+        }
+        return best;
+    }
+
+    private static DiameterEngine engine(Map<Long, Set<Long>> adj) {
+        return DiameterEngine.of(adj.keySet(), id -> adj.get(id).stream().mapToLong(Long::longValue).toArray());
+    }
+
+    @Test
+    void allModesMatchAllPairsBfs() {
+        Random random = new Random(7);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 200; ++round) {
+                int n = 2 + random.nextInt(60);
+                Map<Long, Set<Long>> adj = randomGraph(random, n, random.nextInt(n));
+                int expected = allPairs(adj);
+                DiameterEngine engine = engine(adj);
+
+                assertEquals(expected, engine.exact());
+                assertEquals(expected, engine.exactParallel(pool));
+
+                DiameterEngine.Bounds exact = engine.bounds(Integer.MAX_VALUE);
+                assertTrue(exact.exact());
+                assertEquals(expected, exact.lower());
+
+                DiameterEngine.Bounds cut = engine.bounds(4);
+                assertTrue(cut.lower() <= expected && expected <= cut.upper(), cut + " vs " + expected);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // the old per-source BFS reported one less than the real distance
+    @Test
+    void reportsTheRealDistance() {
+        Map<Long, Set<Long>> pair = new HashMap<>();
+        connect(pair, 1, 2);
+        assertEquals(1, engine(pair).exact());
+        assertEquals(1, engine(pair).bounds(Integer.MAX_VALUE).lower());
+
+        Map<Long, Set<Long>> path = new HashMap<>();
+        connect(path, 1, 2);
+        connect(path, 2, 3);
+        connect(path, 3, 4);
+        assertEquals(3, engine(path).exact());
+
+        Map<Long, Set<Long>> single = Map.of(1L, Set.of());
+        assertEquals(0, engine(single).exact());
+    }
+
+    @Test
+    void ignoresFriendsOutsideTheCommunity() {
+        Map<Long, Set<Long>> adj = new HashMap<>();
+        connect(adj, 1, 2);
+        connect(adj, 2, 3);
+        connect(adj, 3, 99);
+
+        DiameterEngine engine = DiameterEngine.of(List.of(1L, 2L, 3L),
+                id -> adj.get(id).stream().mapToLong(Long::longValue).toArray());
+        assertEquals(2, engine.exact());
+    }
+}